@@ -0,0 +1,176 @@
+package manager.commands.common;
+
+import codex.log.Logger;
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+final class DiskUsageIndex {
+
+    private final static int VERSION = 1;
+
+    private final Path file;
+    private final Map<String, Node> nodes   = new ConcurrentHashMap<>();
+    private final Set<String>       visited = ConcurrentHashMap.newKeySet();
+
+    static final class Usage {
+        final long bytes;
+        final long files;
+        final long newest;
+
+        Usage(long bytes, long files, long newest) {
+            this.bytes  = bytes;
+            this.files  = files;
+            this.newest = newest;
+        }
+
+        Usage add(Usage other) {
+            return new Usage(bytes + other.bytes, files + other.files, Math.max(newest, other.newest));
+        }
+    }
+
+    private static final class Node {
+        final long mtime;
+        final Usage own;
+        final List<String> subDirs;
+
+        Node(long mtime, Usage own, List<String> subDirs) {
+            this.mtime   = mtime;
+            this.own     = own;
+            this.subDirs = subDirs;
+        }
+    }
+
+    DiskUsageIndex(Path file) {
+        this.file = file;
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() == VERSION) {
+                    int size = in.readInt();
+                    for (int i = 0; i < size; i++) {
+                        String path  = in.readUTF();
+                        long   mtime = in.readLong();
+                        Usage  own   = new Usage(in.readLong(), in.readLong(), in.readLong());
+                        int    dirs  = in.readInt();
+                        List<String> subDirs = new ArrayList<>(dirs);
+                        for (int j = 0; j < dirs; j++) {
+                            subDirs.add(in.readUTF());
+                        }
+                        nodes.put(path, new Node(mtime, own, subDirs));
+                    }
+                }
+            } catch (IOException e) {
+                Logger.getLogger().warn("Unable to read disk usage index ''{0}'': {1}", file, e.getMessage());
+                nodes.clear();
+            }
+        }
+    }
+
+    Usage getCached(Path root, Predicate<Path> skip) {
+        Node node = nodes.get(root.toString());
+        if (node == null) {
+            return null;
+        }
+        Usage usage = node.own;
+        for (String subDir : node.subDirs) {
+            Path dir = root.resolve(subDir);
+            if (!skip.test(dir)) {
+                Usage subUsage = getCached(dir, skip);
+                if (subUsage != null) {
+                    usage = usage.add(subUsage);
+                }
+            }
+        }
+        return usage;
+    }
+
+    void startScan() {
+        // Directories left from previous scans of this dialog are not retained by the next complete scan
+        visited.clear();
+    }
+
+    Usage scan(Path root, Predicate<Path> skip, boolean full, BooleanSupplier cancelled) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(root, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return new Usage(0, 0, 0);
+        }
+        if (!attrs.isDirectory()) {
+            return new Usage(attrs.size(), 1, attrs.lastModifiedTime().toMillis());
+        }
+        final String key = root.toString();
+        final long mtime = attrs.lastModifiedTime().toMillis();
+        Node node = nodes.get(key);
+        if (full || node == null || node.mtime != mtime) {
+            node = read(root, mtime);
+            nodes.put(key, node);
+        }
+        visited.add(key);
+
+        Usage usage = node.own;
+        for (String subDir : node.subDirs) {
+            if (cancelled.getAsBoolean()) {
+                break;
+            }
+            Path dir = root.resolve(subDir);
+            if (!skip.test(dir)) {
+                usage = usage.add(scan(dir, skip, full, cancelled));
+            }
+        }
+        return usage;
+    }
+
+    void save(boolean complete) {
+        if (complete) {
+            nodes.keySet().retainAll(visited);
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Map<String, Node> snapshot = new HashMap<>(nodes);
+                out.writeInt(VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Node> entry : snapshot.entrySet()) {
+                    Node node = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(node.mtime);
+                    out.writeLong(node.own.bytes);
+                    out.writeLong(node.own.files);
+                    out.writeLong(node.own.newest);
+                    out.writeInt(node.subDirs.size());
+                    for (String subDir : node.subDirs) {
+                        out.writeUTF(subDir);
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.getLogger().warn("Unable to write disk usage index ''{0}'': {1}", file, e.getMessage());
+        }
+    }
+
+    private static Node read(Path dir, long mtime) throws IOException {
+        long bytes = 0, files = 0, newest = 0;
+        List<String> subDirs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attrs.isDirectory()) {
+                    subDirs.add(child.getFileName().toString());
+                } else {
+                    bytes += attrs.size();
+                    files++;
+                    newest = Math.max(newest, attrs.lastModifiedTime().toMillis());
+                }
+            }
+        }
+        return new Node(mtime, new Usage(bytes, files, newest), subDirs);
+    }
+
+}
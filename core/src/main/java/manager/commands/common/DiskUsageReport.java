@@ -22,6 +22,7 @@ import manager.commands.common.report.*;
 import manager.nodes.Common;
 import manager.nodes.Repository;
 import manager.nodes.RepositoryBranch;
+import manager.utils.LayerStore;
 import org.atteo.classindex.ClassIndex;
 import javax.swing.*;
 import javax.swing.border.CompoundBorder;
@@ -31,11 +32,6 @@ import javax.swing.border.MatteBorder;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.text.DecimalFormat;
 import java.text.MessageFormat;
 import java.util.Collection;
@@ -43,6 +39,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -52,7 +50,8 @@ public class DiskUsageReport extends EntityCommand<Common> {
     private final static IConfigStoreService  CAS = (IConfigStoreService) ServiceRegistry.getInstance().lookupService(ConfigStoreService.class);
     private final static ITaskExecutorService TES = ((ITaskExecutorService) ServiceRegistry.getInstance().lookupService(TaskManager.TaskExecutorService.class));
 
-    private static final String SIZE_FORMAT = Language.get(DiskUsageReport.class, "task@total");
+    private static final String SIZE_FORMAT  = Language.get(DiskUsageReport.class, "task@total");
+    private static final String STORE_FORMAT = Language.get(DiskUsageReport.class, "task@store");
     public  static final String TRASH       = "trash@title";
 
     public DiskUsageReport() {
@@ -237,16 +236,51 @@ public class DiskUsageReport extends EntityCommand<Common> {
                     ));
                 };
 
-                CalculateDirsSize calcTask = new CalculateDirsSize(result, listener);
-                AbstractTaskView taskView = calcTask.createView(null);
-                taskView.setBorder(new CompoundBorder(
-                        new EmptyBorder(5, 5, 0, 5),
-                        new CompoundBorder(
-                                new LineBorder(Color.LIGHT_GRAY, 1),
-                                new EmptyBorder(5, 5, 5, 5)
+                final JLabel storeInfo = new JLabel() {{
+                    setBorder(new EmptyBorder(5, 36, 0, 0));
+                }};
+                Consumer<LayerStore.Usage> storeListener = usage -> SwingUtilities.invokeLater(() -> storeInfo.setText(
+                        MessageFormat.format(
+                                STORE_FORMAT,
+                                formatFileSize(usage.sharedBytes),
+                                formatFileSize(usage.exclusiveBytes),
+                                formatFileSize(usage.unusedBytes),
+                                formatFileSize(usage.savedBytes)
                         )
                 ));
 
+                Common common = DiskUsageReport.this.getContext().get(0);
+                LayerStore store = new LayerStore(common.getStoreDir());
+                DiskUsageIndex index = new DiskUsageIndex(common.getCacheDir().resolve("disk-usage"));
+                result.forEach(repoEntity -> repoEntity.childrenList().forEach(node -> {
+                    Entry entry = (Entry) node;
+                    DiskUsageIndex.Usage usage = index.getCached(new File(entry.getPID()).toPath(), entry::skipDirectory);
+                    if (usage != null) {
+                        listener.sizeChanged(entry, usage.bytes);
+                        entry.setSize(usage.bytes);
+                    }
+                }));
+
+                AtomicReference<CalculateDirsSize> calcTask = new AtomicReference<>(new CalculateDirsSize(result, index, store, false, listener, storeListener));
+                JPanel taskPanel = new JPanel(new BorderLayout());
+                taskPanel.add(createTaskView(calcTask.get()), BorderLayout.CENTER);
+
+                JButton rescan = new JButton(Language.get(DiskUsageReport.class, "task@rescan"));
+                rescan.setFocusable(false);
+                rescan.addActionListener(event -> {
+                    calcTask.get().cancel(true);
+                    calcTask.set(new CalculateDirsSize(result, index, store, true, listener, storeListener));
+                    taskPanel.removeAll();
+                    taskPanel.add(createTaskView(calcTask.get()), BorderLayout.CENTER);
+                    taskPanel.revalidate();
+                    taskPanel.repaint();
+                    TES.quietTask(calcTask.get());
+                });
+
+                JButton reclaim = new JButton(Language.get(DiskUsageReport.class, "task@reclaim"));
+                reclaim.setFocusable(false);
+                reclaim.addActionListener(event -> TES.quietTask(new ReclaimStore(store, storeListener)));
+
                 result.parallelStream().forEach((repoEntity) -> {
                     repoEntity.lockEntries();
                     repoEntity.addNodeListener(new INodeListener() {
@@ -269,8 +303,18 @@ public class DiskUsageReport extends EntityCommand<Common> {
                 view.add(
                         new JPanel(new BorderLayout()){{
                             setBackground(Color.WHITE);
-                            add(sizeInfo, BorderLayout.NORTH);
-                            add(taskView, BorderLayout.CENTER);
+                            add(new JPanel(new BorderLayout()) {{
+                                setOpaque(false);
+                                setBorder(new EmptyBorder(5, 0, 0, 5));
+                                add(sizeInfo, BorderLayout.CENTER);
+                                add(rescan, BorderLayout.EAST);
+                                add(new JPanel(new BorderLayout()) {{
+                                    setOpaque(false);
+                                    add(storeInfo, BorderLayout.CENTER);
+                                    add(reclaim, BorderLayout.EAST);
+                                }}, BorderLayout.SOUTH);
+                            }}, BorderLayout.NORTH);
+                            add(taskPanel, BorderLayout.CENTER);
                         }},
                         BorderLayout.NORTH
                 );
@@ -281,13 +325,13 @@ public class DiskUsageReport extends EntityCommand<Common> {
                         Language.get(DiskUsageReport.class, "title"),
                         view,
                         (event) -> {
-                            calcTask.cancel(true);
+                            calcTask.get().cancel(true);
                             result.forEach(repoView -> repoView.model.remove());
                             result.forEach(RepoView::unlockEntries);
                         },
                         Dialog.Default.BTN_CLOSE
                 );
-                TES.quietTask(calcTask);
+                TES.quietTask(calcTask.get());
                 SwingUtilities.invokeLater(() -> {
                     dialog.setPreferredSize(new Dimension(800, 600));
                     dialog.setResizable(false);
@@ -297,63 +341,60 @@ public class DiskUsageReport extends EntityCommand<Common> {
         }
     }
 
+    private static AbstractTaskView createTaskView(CalculateDirsSize calcTask) {
+        AbstractTaskView taskView = calcTask.createView(null);
+        taskView.setBorder(new CompoundBorder(
+                new EmptyBorder(5, 5, 0, 5),
+                new CompoundBorder(
+                        new LineBorder(Color.LIGHT_GRAY, 1),
+                        new EmptyBorder(5, 5, 5, 5)
+                )
+        ));
+        return taskView;
+    }
+
     class CalculateDirsSize extends AbstractTask<Void> {
 
         private final List<RepoView>  repoEntities;
+        private final DiskUsageIndex  index;
+        private final LayerStore      store;
+        private final boolean       full;
         private final ICalcListener listener;
+        private final Consumer<LayerStore.Usage> storeListener;
 
-        CalculateDirsSize(List<RepoView> repoEntities, ICalcListener listener) {
+        CalculateDirsSize(List<RepoView> repoEntities, DiskUsageIndex index, LayerStore store, boolean full, ICalcListener listener, Consumer<LayerStore.Usage> storeListener) {
             super(Language.get(DiskUsageReport.class, "task@title"));
             this.repoEntities = repoEntities;
+            this.index    = index;
+            this.store    = store;
+            this.full     = full;
             this.listener = listener;
+            this.storeListener = storeListener;
         }
 
         @Override
         public Void execute() {
+            index.startScan();
             repoEntities.parallelStream().forEach((repoEntity) -> {
                 repoEntity.childrenList().parallelStream().forEach((node) -> {
                     Entry entry = (Entry) node;
-                    AtomicLong entrySize = new AtomicLong(0);
                     try {
-                        Files.walkFileTree(new File(entry.getPID()).toPath(), new SimpleFileVisitor<Path>() {
-
-                            @Override
-                            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                                if (isCancelled()) {
-                                    return FileVisitResult.TERMINATE;
-                                }
-                                entrySize.addAndGet(attrs.size());
-                                return FileVisitResult.CONTINUE;
-                            }
-
-                            @Override
-                            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                                if (isCancelled()) {
-                                    return FileVisitResult.TERMINATE;
-                                }
-                                if (entry.skipDirectory(dir)) {
-                                    return FileVisitResult.SKIP_SUBTREE;
-                                }
-                                return FileVisitResult.CONTINUE;
-                            }
-
-                            @Override
-                            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
-                                if (isCancelled()) {
-                                    return FileVisitResult.TERMINATE;
-                                }
-                                return FileVisitResult.CONTINUE;
-                            }
-                        });
+                        long entrySize = index.scan(new File(entry.getPID()).toPath(), entry::skipDirectory, full, this::isCancelled).bytes;
                         if (!isCancelled()) {
-                            listener.sizeChanged(entry, entrySize.get());
-                            entry.setSize(entrySize.get());
+                            synchronized (entry) {
+                                listener.sizeChanged(entry, entrySize - entry.getOriginalSize());
+                                entry.setSize(entrySize);
+                            }
                         }
                     } catch (IOException e) {
                         throw new Error(e.getMessage());
                     }
                 });
             });
+            index.save(!isCancelled());
+            if (!isCancelled()) {
+                storeListener.accept(store.getUsage());
+            }
             return null;
         }
 
@@ -363,6 +404,32 @@ public class DiskUsageReport extends EntityCommand<Common> {
         }
     }
 
+    class ReclaimStore extends AbstractTask<LayerStore.Usage> {
+
+        private final LayerStore store;
+        private final Consumer<LayerStore.Usage> storeListener;
+
+        ReclaimStore(LayerStore store, Consumer<LayerStore.Usage> storeListener) {
+            super(Language.get(DiskUsageReport.class, "task@reclaim"));
+            this.store = store;
+            this.storeListener = storeListener;
+        }
+
+        @Override
+        public LayerStore.Usage execute() {
+            // Objects are not linked from any release tree anymore
+            store.reclaim();
+            return store.getUsage();
+        }
+
+        @Override
+        public void finished(LayerStore.Usage result) {
+            if (result != null) {
+                storeListener.accept(result);
+            }
+        }
+    }
+
     @FunctionalInterface
     interface ICalcListener {
         void sizeChanged(Entry entry, long value);
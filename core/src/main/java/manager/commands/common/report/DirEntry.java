@@ -1,5 +1,7 @@
 package manager.commands.common.report;
 
+import codex.explorer.ExplorerAccessService;
+import codex.explorer.IExplorerAccessService;
 import codex.service.ServiceRegistry;
 import codex.task.AbstractTask;
 import codex.task.ITask;
@@ -9,21 +11,19 @@ import codex.type.EntityRef;
 import codex.utils.ImageUtils;
 import codex.utils.Language;
 import manager.commands.common.DiskUsageReport;
-import org.apache.commons.io.FileDeleteStrategy;
+import manager.nodes.Common;
+import manager.utils.DirectoryEraser;
 
 import javax.swing.*;
 import java.io.File;
-import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.text.MessageFormat;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @BranchLink(priority = 2)
 public class DirEntry extends Entry {
 
-    private final static ITaskExecutorService TES = ((ITaskExecutorService) ServiceRegistry.getInstance().lookupService(TaskManager.TaskExecutorService.class));
+    private final static ITaskExecutorService   TES = ((ITaskExecutorService) ServiceRegistry.getInstance().lookupService(TaskManager.TaskExecutorService.class));
+    private final static IExplorerAccessService EAS = (IExplorerAccessService) ServiceRegistry.getInstance().lookupService(ExplorerAccessService.class);
 
     public DirEntry(EntityRef owner, String filePath) {
         this(owner, ImageUtils.getByPath("/images/unknown_dir.png"), filePath);
@@ -33,10 +33,6 @@ public class DirEntry extends Entry {
         super(owner, icon, filePath);
     }
 
-    protected long getFilesCount() throws IOException {
-        return Files.walk(new File(getPID()).toPath()).count();
-    }
-
     @Override
     protected void deleteEntry() {
         TES.executeTask(createDeleteTask());
@@ -63,45 +59,17 @@ public class DirEntry extends Entry {
 
         @Override
         public Void execute() throws Exception {
-            setProgress(0, Language.get(DiskUsageReport.class, "delete@calc"));
-            long totalFiles = entry.getFilesCount();
-            File directory  = new File(getPID());
-
-            AtomicInteger processed = new AtomicInteger(0);
-            Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
-
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                    return processPath(file);
-                }
-
-                @Override
-                public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
-                    return processPath(dir);
-                }
-
-                private FileVisitResult processPath(Path path) {
-                    checkPaused();
-                    if (isCancelled()) {
-                        return FileVisitResult.TERMINATE;
-                    }
-                    try {
-                        FileDeleteStrategy.NORMAL.delete(path.toFile());
-                        processed.addAndGet(1);
-                        String fileName = path.toString().replace(entry.getPID() + File.separator, "");
-                        setProgress(
-                                (int) (processed.get() * 100 / totalFiles),
-                                MessageFormat.format(
-                                        Language.get(DiskUsageReport.class, "delete@progress"),
-                                        fileName
-                                )
-                        );
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+            File directory = new File(getPID());
+            Path trashDir  = ((Common) EAS.getRoot()).getTrashDir();
+            if (!DirectoryEraser.isTrashEnabled() || trashDir == null || !DirectoryEraser.moveToTrash(directory.toPath(), trashDir)) {
+                new DirectoryEraser(directory.toPath(), this::isCancelled, this::checkPaused, (percent, current) -> setProgress(
+                        percent,
+                        MessageFormat.format(
+                                Language.get(DiskUsageReport.class, "delete@progress"),
+                                current.toString().replace(entry.getPID() + File.separator, "")
+                        )
+                )).delete(entry.getOriginalSize());
+            }
             try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(directory.getParentFile().toPath())) {
                 if (!dirStream.iterator().hasNext()) {
                     directory.getParentFile().delete();
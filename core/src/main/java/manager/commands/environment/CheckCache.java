@@ -2,13 +2,18 @@ package manager.commands.environment;
 
 import codex.component.messagebox.MessageBox;
 import codex.component.messagebox.MessageType;
+import codex.explorer.ExplorerAccessService;
+import codex.explorer.IExplorerAccessService;
 import codex.service.ServiceRegistry;
 import codex.task.*;
 import codex.utils.Language;
+import manager.commands.common.DiskUsageReport;
+import manager.nodes.Common;
 import manager.nodes.Environment;
 import manager.nodes.Release;
 import manager.nodes.Repository;
 import manager.svn.SVN;
+import manager.utils.LayerStore;
 import manager.xml.Directory;
 import manager.xml.DirectoryDocument;
 import org.apache.commons.io.FileUtils;
@@ -18,7 +23,6 @@ import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,22 +31,26 @@ import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 class CheckCache extends AbstractTask<Void> {
 
-    private static final String INDEX_FILE = ".layer.index";
     private final static ExecutorService EXECUTOR = Executors.newFixedThreadPool(5);
+    private static final IExplorerAccessService EAS = (IExplorerAccessService) ServiceRegistry.getInstance().lookupService(ExplorerAccessService.class);
     private static final ITaskExecutorService TES = ((ITaskExecutorService) ServiceRegistry.getInstance().lookupService(TaskManager.TaskExecutorService.class));
 
     private final Environment environment;
     private final ITask[] planningTasks;
     private final String  releasePath;
+    private final boolean fullCheck;
 
     CheckCache(Environment environment, ITask... planningTasks) {
+        this(environment, false, planningTasks);
+    }
+
+    CheckCache(Environment environment, boolean fullCheck, ITask... planningTasks) {
         super(MessageFormat.format(
                 Language.get(Release.class, "cache@check.title"),
                 environment.getBinaries().getLocalPath()
@@ -50,6 +58,7 @@ class CheckCache extends AbstractTask<Void> {
         this.environment   = environment;
         this.planningTasks = planningTasks;
         this.releasePath   = environment.getBinaries().getLocalPath();
+        this.fullCheck     = fullCheck;
     }
 
     @Override
@@ -81,18 +90,16 @@ class CheckCache extends AbstractTask<Void> {
             return null;
         }
 
-        boolean indexCheckResult = requiredLayers.entrySet().parallelStream().allMatch(layerToPath -> {
-            File indexFile = Paths.get(releasePath, layerToPath.getKey(), INDEX_FILE).toFile();
-            if (indexFile.exists()) {
-                try {
-                    return FileUtils.readLines(indexFile, StandardCharsets.UTF_8)
-                            .parallelStream()
-                            .allMatch(path -> Files.exists(Paths.get(releasePath.concat(File.separator).concat(path))));
-                } catch (IOException e) {
-                    return false;
-                }
+        boolean indexCheckResult = requiredLayers.keySet().parallelStream().allMatch(layer -> {
+            LayerManifest manifest = LayerManifest.read(Paths.get(releasePath), layer);
+            if (manifest == null) {
+                return LayerManifest.migrate(Paths.get(releasePath), layer);
+            } else if (fullCheck) {
+                List<String> corrupted = manifest.verify(Paths.get(releasePath));
+                corrupted.forEach(path -> FileUtils.deleteQuietly(Paths.get(releasePath, path).toFile()));
+                return corrupted.isEmpty();
             } else {
-                return false;
+                return manifest.check(Paths.get(releasePath));
             }
         });
 
@@ -126,36 +133,32 @@ class CheckCache extends AbstractTask<Void> {
                     ));
                 });
 
-                boolean loaded = layerToIndex.values().stream()
-                        .allMatch(
-                                index -> index.entrySet().stream()
-                                        .allMatch(indexEntry -> indexEntry.getValue().isLoaded())
-                        );
-                if (!loaded) {
-                    List<Map.Entry<Path, IndexEntryFile>> absentEntries =
-                            layerToIndex.values().stream()
-                            .map(layerIndex -> layerIndex.entrySet().stream())
-                            .flatMap(x -> x)
-                            .filter(indexEntry -> !indexEntry.getValue().isLoaded())
-                            .collect(Collectors.toList());
-                    loadGaps(absentEntries);
+                List<Map.Entry<Path, IndexEntryFile>> absentEntries = layerToIndex.values().stream()
+                        .map(layerIndex -> layerIndex.entrySet().stream())
+                        .flatMap(x -> x)
+                        .filter(indexEntry -> !indexEntry.getValue().isLoaded())
+                        .collect(Collectors.toList());
+                List<String> layerOrder = new ArrayList<>(requiredLayers.keySet());
+                Collections.reverse(layerOrder);
+                if (absentEntries.isEmpty() || loadGaps(absentEntries, layerOrder)) {
+                    Path storeDir = ((Common) EAS.getRoot()).getStoreDir();
+                    layerToIndex.forEach((layer, index) -> {
+                        List<String> paths = index.values().stream()
+                                .map(indexEntry -> indexEntry.includes.stream())
+                                .flatMap(stringStream -> stringStream)
+                                .collect(Collectors.toList());
+                        try {
+                            LayerManifest.write(Paths.get(releasePath), layer, paths);
+                            if (storeDir != null) {
+                                // Sealed layer files are shared with other releases containing the same content
+                                new LayerStore(storeDir).linkLater(Paths.get(releasePath), paths);
+                            }
+                        } catch (IOException e) {
+                            // Do nothing
+                        }
+                    });
                 }
 
-                layerToIndex.forEach((layer, index) -> {
-                    try {
-                        Files.write(
-                                Paths.get(releasePath, layer, INDEX_FILE),
-                                index.values().parallelStream()
-                                        .map(indexEntry -> indexEntry.includes.stream())
-                                        .flatMap(stringStream -> stringStream)
-                                        .collect(Collectors.toList()),
-                                StandardCharsets.UTF_8
-                        );
-                    } catch (IOException e) {
-                        // Do nothing
-                    }
-                });
-
             } catch (InterruptedException e) {
                 // Do nothing
             } finally {
@@ -272,31 +275,20 @@ class CheckCache extends AbstractTask<Void> {
         return index;
     }
 
-    private void loadGaps(List<Map.Entry<Path, IndexEntryFile>> gapsList) {
+    private boolean loadGaps(List<Map.Entry<Path, IndexEntryFile>> gapsList, List<String> layerOrder) {
         ISVNAuthenticationManager authMgr = environment.getBinaries().getRepository().getAuthManager();
-        AtomicInteger current = new AtomicInteger(0);
-        List<Callable<Boolean>> callables = gapsList.parallelStream().map(gap ->
-                (Callable<Boolean>) () -> {
-                    SVN.export(
-                            gap.getValue().url,
-                            releasePath.concat(File.separator).concat(gap.getValue().path),
-                            authMgr,
-                            null
-                    );
-                    current.addAndGet(1);
-                    setProgress(
-                            current.get() * 100 / gapsList.size(),
-                            MessageFormat.format(
-                                    Language.get(Release.class, "cache@task.progress"),
-                                    gap.getValue().path
-                            )
-                    );
-                    return true;
-                }
-        ).collect(Collectors.toList());
-
+        GapFetchScheduler scheduler = new GapFetchScheduler(
+                Paths.get(releasePath), authMgr, layerOrder, this::isCancelled,
+                (percent, layer, files, totalFiles, bytes) -> setProgress(
+                        percent,
+                        MessageFormat.format(
+                                Language.get(Release.class, "cache@task.progress"),
+                                layer, files, totalFiles, DiskUsageReport.formatFileSize(bytes)
+                        )
+                )
+        );
         try {
-            EXECUTOR.invokeAll(callables);
+            return scheduler.run(gapsList.stream().map(Map.Entry::getValue).collect(Collectors.toList()));
         } catch (InterruptedException e) {
             throw new CancelException();
         }
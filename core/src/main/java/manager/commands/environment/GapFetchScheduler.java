@@ -0,0 +1,264 @@
+package manager.commands.environment;
+
+import codex.log.Logger;
+import manager.svn.SVN;
+import manager.utils.LayerStore;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+final class GapFetchScheduler {
+
+    private final static int    MAX_THREADS   = Math.max(1, Integer.getInteger("manager.cache.fetchThreads", 12));
+    private final static int    INIT_THREADS  = Math.min(4, MAX_THREADS);
+    private final static int    COALESCE_MIN  = 3;
+    private final static int    MAX_ATTEMPTS  = 4;
+    private final static long   BACKOFF       = 500;
+    private final static int    SAMPLE_SIZE   = 8;
+    private final static double RATE_EPSILON  = 0.1;
+
+    private final static List<SVNErrorCode> TRANSIENT_CODES = Arrays.asList(
+            SVNErrorCode.RA_SVN_IO_ERROR,
+            SVNErrorCode.RA_SVN_MALFORMED_DATA,
+            SVNErrorCode.RA_SVN_CONNECTION_CLOSED,
+            SVNErrorCode.RA_DAV_REQUEST_FAILED,
+            SVNErrorCode.IO_ERROR
+    );
+
+    @FunctionalInterface
+    interface IProgressListener {
+        void progress(int percent, String layer, int files, int totalFiles, long bytes);
+    }
+
+    private static final class Fetch {
+        final String       layer;
+        final int          priority;
+        final String       url;
+        final String       path;
+        final List<String> names;
+        final List<String> files;
+
+        Fetch(String layer, int priority, String url, String path, List<String> names, List<String> files) {
+            this.layer    = layer;
+            this.priority = priority;
+            this.url      = url;
+            this.path     = path;
+            this.names    = names;
+            this.files    = files;
+        }
+    }
+
+    private static final class Result {
+        final Fetch fetch;
+        final long  bytes;
+        final int   retries;
+
+        Result(Fetch fetch, long bytes, int retries) {
+            this.fetch   = fetch;
+            this.bytes   = bytes;
+            this.retries = retries;
+        }
+    }
+
+    private final Path releaseDir;
+    private final ISVNAuthenticationManager authMgr;
+    private final List<String>      layerOrder;
+    private final BooleanSupplier   cancelled;
+    private final IProgressListener listener;
+
+    private final Map<String, Integer> layerTotal = new HashMap<>();
+    private final Map<String, Integer> layerFiles = new HashMap<>();
+    private final Map<String, Long>    layerBytes = new HashMap<>();
+
+    private int    limit = INIT_THREADS;
+    private int    sampleCount = 0;
+    private long   sampleBytes = 0;
+    private long   sampleStart = System.currentTimeMillis();
+    private double lastRate    = 0;
+
+    GapFetchScheduler(Path releaseDir, ISVNAuthenticationManager authMgr, List<String> layerOrder, BooleanSupplier cancelled, IProgressListener listener) {
+        this.releaseDir = releaseDir;
+        this.authMgr    = authMgr;
+        this.layerOrder = layerOrder;
+        this.cancelled  = cancelled;
+        this.listener   = listener;
+    }
+
+    boolean run(List<CheckCache.IndexEntryFile> gaps) throws InterruptedException {
+        PriorityQueue<Fetch> queue = new PriorityQueue<>(
+                Comparator.<Fetch>comparingInt(fetch -> fetch.priority).thenComparing(fetch -> fetch.path)
+        );
+        queue.addAll(plan(gaps));
+        int totalFiles = queue.stream().mapToInt(fetch -> fetch.files.size()).sum();
+        int doneFiles  = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(MAX_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "Release cache fetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+        boolean success = true;
+        int running = 0;
+        try {
+            while (!queue.isEmpty() || running > 0) {
+                while (success && running < limit && !queue.isEmpty() && !cancelled.getAsBoolean()) {
+                    Fetch fetch = queue.poll();
+                    completion.submit(() -> fetch(fetch));
+                    running++;
+                }
+                if (running == 0) {
+                    break;
+                }
+                Future<Result> future = completion.take();
+                running--;
+                try {
+                    Result result = future.get();
+                    doneFiles += result.fetch.files.size();
+                    adapt(result);
+                    String layer = result.fetch.layer;
+                    layerFiles.merge(layer, result.fetch.files.size(), Integer::sum);
+                    layerBytes.merge(layer, result.bytes, Long::sum);
+                    listener.progress(
+                            totalFiles == 0 ? 100 : doneFiles * 100 / totalFiles,
+                            layer, layerFiles.get(layer), layerTotal.get(layer), layerBytes.get(layer)
+                    );
+                } catch (ExecutionException e) {
+                    Logger.getLogger().warn("Unable to load release cache entry: {0}", e.getCause().getMessage());
+                    success = false;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return success && !cancelled.getAsBoolean();
+    }
+
+    private List<Fetch> plan(List<CheckCache.IndexEntryFile> gaps) {
+        List<Fetch> fetches = new LinkedList<>();
+        Map<String, List<CheckCache.IndexEntryFile>> siblings = new LinkedHashMap<>();
+        for (CheckCache.IndexEntryFile gap : gaps) {
+            String layer = getLayer(gap.path);
+            layerTotal.merge(layer, gap.includes.size(), Integer::sum);
+            Path parent = Paths.get(gap.path).getParent();
+            if (gap instanceof CheckCache.IndexEntryDir || parent == null) {
+                fetches.add(new Fetch(layer, getPriority(layer), gap.url, gap.path, null, gap.includes));
+            } else {
+                siblings.computeIfAbsent(parent.toString(), key -> new LinkedList<>()).add(gap);
+            }
+        }
+        // Missing files of one directory are loaded through single session instead of a session per file
+        siblings.forEach((parent, entries) -> {
+            String layer = getLayer(parent);
+            if (entries.size() >= COALESCE_MIN) {
+                String url = entries.get(0).url.substring(0, entries.get(0).url.lastIndexOf("/"));
+                fetches.add(new Fetch(
+                        layer, getPriority(layer), url, parent,
+                        entries.stream().map(entry -> Paths.get(entry.path).getFileName().toString()).collect(Collectors.toList()),
+                        entries.stream().map(entry -> entry.path).collect(Collectors.toList())
+                ));
+            } else {
+                entries.forEach(entry -> fetches.add(
+                        new Fetch(layer, getPriority(layer), entry.url, entry.path, null, entry.includes)
+                ));
+            }
+        });
+        return fetches;
+    }
+
+    private String getLayer(String path) {
+        return Paths.get(path).getName(0).toString();
+    }
+
+    private int getPriority(String layer) {
+        // Base layers are started first, so their files are loaded first
+        int index = layerOrder.indexOf(layer);
+        return index < 0 ? layerOrder.size() : index;
+    }
+
+    private Result fetch(Fetch fetch) throws SVNException, InterruptedException {
+        for (String file : fetch.files) {
+            try {
+                // Export overwrites existing files in place, they may be shared with other releases
+                LayerStore.detach(releaseDir.resolve(file));
+            } catch (IOException e) {
+                Logger.getLogger().debug("Unable to detach file ''{0}'': {1}", file, e.getMessage());
+            }
+        }
+        int attempt = 0;
+        while (true) {
+            try {
+                if (fetch.names != null) {
+                    // Files loaded by a failed attempt are not requested again
+                    Path dir = releaseDir.resolve(fetch.path);
+                    SVN.exportFiles(fetch.url, dir.toString(), fetch.names.stream()
+                            .filter(name -> !Files.exists(dir.resolve(name)))
+                            .collect(Collectors.toList()), authMgr
+                    );
+                } else {
+                    SVN.export(fetch.url, releaseDir.resolve(fetch.path).toString(), authMgr);
+                }
+                return new Result(fetch, measure(fetch), attempt);
+            } catch (SVNException e) {
+                attempt++;
+                if (attempt >= MAX_ATTEMPTS || !isTransient(e) || cancelled.getAsBoolean()) {
+                    throw e;
+                }
+                Logger.getLogger().debug("Retry loading of ''{0}'' ({1}): {2}", fetch.path, attempt, e.getMessage());
+                Thread.sleep((BACKOFF << (attempt - 1)) + ThreadLocalRandom.current().nextLong(BACKOFF));
+            }
+        }
+    }
+
+    private long measure(Fetch fetch) {
+        long bytes = 0;
+        for (String file : fetch.files) {
+            try {
+                bytes += Files.size(releaseDir.resolve(file));
+            } catch (IOException e) {
+                // Do nothing
+            }
+        }
+        return bytes;
+    }
+
+    private void adapt(Result result) {
+        if (result.retries > 0) {
+            // Link is overloaded or unstable
+            limit = Math.max(1, limit / 2);
+            resetSample(0);
+            return;
+        }
+        sampleCount++;
+        sampleBytes += result.bytes;
+        if (sampleCount >= Math.max(SAMPLE_SIZE, limit)) {
+            double rate = (double) sampleBytes / Math.max(1, System.currentTimeMillis() - sampleStart);
+            if (rate >= lastRate * (1 + RATE_EPSILON)) {
+                limit = Math.min(MAX_THREADS, limit + 1);
+            } else if (rate < lastRate * (1 - RATE_EPSILON)) {
+                limit = Math.max(1, limit - 1);
+            }
+            resetSample(rate);
+        }
+    }
+
+    private void resetSample(double rate) {
+        lastRate    = rate;
+        sampleCount = 0;
+        sampleBytes = 0;
+        sampleStart = System.currentTimeMillis();
+    }
+
+    private static boolean isTransient(SVNException e) {
+        return TRANSIENT_CODES.contains(e.getErrorMessage().getErrorCode()) || e.getCause() instanceof IOException;
+    }
+
+}
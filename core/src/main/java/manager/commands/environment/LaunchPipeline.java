@@ -0,0 +1,84 @@
+package manager.commands.environment;
+
+import codex.utils.Language;
+import manager.nodes.Environment;
+import manager.type.SourceType;
+import javax.swing.*;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+final class LaunchPipeline {
+
+    private final static ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Launch preparation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long created = System.currentTimeMillis();
+    private volatile long versionTime = -1;
+
+    LaunchPipeline(Environment environment) {
+        CompletableFuture<String> version = CompletableFuture.supplyAsync(() -> {
+            try {
+                return environment.getLayerVersion();
+            } finally {
+                versionTime = System.currentTimeMillis() - created;
+            }
+        }, EXECUTOR);
+        if (environment.getAutoRelease(false) && environment.getSourceType(false) == SourceType.Release) {
+            // Release is selected by the database version, so binaries are not known until the query completes
+            environment.setVersion(version.join());
+        } else {
+            version.thenAccept(value -> SwingUtilities.invokeLater(() -> environment.setVersion(value)));
+        }
+    }
+
+    Launch launch(Supplier<List<String>> commandBuilder) {
+        return new Launch(commandBuilder);
+    }
+
+    final class Launch {
+
+        private final CompletableFuture<List<String>> command;
+        private volatile long commandTime;
+        private long prepared, assembled;
+
+        private Launch(Supplier<List<String>> commandBuilder) {
+            command = CompletableFuture.supplyAsync(() -> {
+                long start = System.currentTimeMillis();
+                try {
+                    return commandBuilder.get();
+                } finally {
+                    commandTime = System.currentTimeMillis() - start;
+                }
+            }, EXECUTOR);
+        }
+
+        List<String> getCommand() throws InterruptedException, ExecutionException {
+            prepared  = System.currentTimeMillis();
+            List<String> result = command.get();
+            assembled = System.currentTimeMillis();
+            return result;
+        }
+
+        String getTimings() {
+            long started = System.currentTimeMillis();
+            long version = versionTime;
+            return MessageFormat.format(
+                    Language.get(Environment.class, "launch@timings"),
+                    String.valueOf(started - created),
+                    version < 0 ? Language.get(Environment.class, "launch@pending") : String.valueOf(version),
+                    String.valueOf(prepared - created),
+                    String.valueOf(commandTime),
+                    String.valueOf(started - assembled)
+            );
+        }
+    }
+
+}
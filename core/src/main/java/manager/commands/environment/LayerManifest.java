@@ -0,0 +1,172 @@
+package manager.commands.environment;
+
+import codex.log.Logger;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+final class LayerManifest {
+
+    private final static String  FILE       = ".layer.manifest";
+    private final static String  OLD_INDEX  = ".layer.index";
+    private final static int     VERSION    = 1;
+    private final static long    SEAL       = 0x5345414C45444D46L;
+    private final static long    DIRECTORY  = -1;
+    private final static boolean HASHES     = Boolean.getBoolean("manager.cache.hashes");
+    private final static int     SAMPLE     = 64;
+
+    private static final class Entry {
+        final String path;
+        final long   size;
+        final byte[] hash;
+
+        Entry(String path, long size, byte[] hash) {
+            this.path = path;
+            this.size = size;
+            this.hash = hash;
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private LayerManifest(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    static LayerManifest read(Path releaseDir, String layer) {
+        Path file = releaseDir.resolve(layer).resolve(FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            int size = in.readInt();
+            List<Entry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String path = in.readUTF();
+                long   length = in.readLong();
+                byte[] hash = new byte[in.readUnsignedByte()];
+                in.readFully(hash);
+                entries.add(new Entry(path, length, hash.length == 0 ? null : hash));
+            }
+            long checksum = crc.getValue();
+            if (in.readLong() != SEAL || in.readLong() != checksum) {
+                return null;
+            }
+            return new LayerManifest(entries);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static boolean migrate(Path releaseDir, String layer) {
+        // Cache of previous versions is described by a plain list of paths, it is sealed once found complete
+        Path index = releaseDir.resolve(layer).resolve(OLD_INDEX);
+        if (!Files.exists(index)) {
+            return false;
+        }
+        List<String> paths;
+        try {
+            paths = Files.readAllLines(index, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return false;
+        }
+        if (!paths.parallelStream().allMatch(path -> Files.exists(releaseDir.resolve(path)))) {
+            return false;
+        }
+        try {
+            write(releaseDir, layer, paths);
+        } catch (IOException e) {
+            Logger.getLogger().warn("Unable to convert layer index ''{0}'': {1}", index, e.getMessage());
+        }
+        return true;
+    }
+
+    static void write(Path releaseDir, String layer, Collection<String> paths) throws IOException {
+        Path layerDir = releaseDir.resolve(layer);
+        Path temp = Files.createTempFile(layerDir, FILE, ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                DataOutputStream checked = new DataOutputStream(new CheckedOutputStream(out, crc));
+                checked.writeInt(VERSION);
+                checked.writeInt(paths.size());
+                for (String path : paths) {
+                    Path entryPath = releaseDir.resolve(path);
+                    BasicFileAttributes attrs = Files.readAttributes(entryPath, BasicFileAttributes.class);
+                    byte[] hash = HASHES && !attrs.isDirectory() ? hash(entryPath) : new byte[0];
+                    checked.writeUTF(path);
+                    checked.writeLong(attrs.isDirectory() ? DIRECTORY : attrs.size());
+                    checked.writeByte(hash.length);
+                    checked.write(hash);
+                }
+                checked.flush();
+                out.writeLong(SEAL);
+                out.writeLong(crc.getValue());
+            }
+            Files.move(temp, layerDir.resolve(FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(layerDir.resolve(OLD_INDEX));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    boolean check(Path releaseDir) {
+        List<Entry> sample = new ArrayList<>(entries);
+        Collections.shuffle(sample);
+        return sample.subList(0, Math.min(SAMPLE, sample.size())).stream()
+                .allMatch(entry -> isValid(releaseDir, entry, false));
+    }
+
+    List<String> verify(Path releaseDir) {
+        return entries.parallelStream()
+                .filter(entry -> !isValid(releaseDir, entry, true))
+                .map(entry -> entry.path)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isValid(Path releaseDir, Entry entry, boolean checkHash) {
+        Path path = releaseDir.resolve(entry.path);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            if (entry.size == DIRECTORY) {
+                return attrs.isDirectory();
+            }
+            if (attrs.isDirectory() || attrs.size() != entry.size) {
+                return false;
+            }
+            return !checkHash || entry.hash == null || Arrays.equals(entry.hash, hash(path));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static byte[] hash(Path path) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+                byte[] buffer = new byte[64 * 1024];
+                while (in.read(buffer) != -1) {
+                    // Digest only
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            Logger.getLogger().warn("Unable to calculate file hash: {0}", e.getMessage());
+            return new byte[0];
+        }
+    }
+
+}
@@ -28,17 +28,17 @@ public class RunAll extends EntityCommand<Environment> {
 
     @Override
     public void execute(Environment environment, Map<String, IComplexType> map) {
-        environment.setVersion(environment.getLayerVersion());
+        LaunchPipeline pipeline = new LaunchPipeline(environment);
         BinarySource source = environment.getBinaries();
         if (source instanceof Release) {
             TES.executeTask(new CheckCache(
                     environment,
-                    environment.getCommand(RunServer.class).new RunServerTask(environment),
-                    environment.getCommand(RunExplorer.class).new RunExplorerTask(environment)
+                    environment.getCommand(RunServer.class).new RunServerTask(environment, pipeline),
+                    environment.getCommand(RunExplorer.class).new RunExplorerTask(environment, pipeline)
             ));
         } else {
-            TES.enqueueTask(environment.getCommand(RunServer.class).new RunServerTask(environment));
-            TES.enqueueTask(environment.getCommand(RunExplorer.class).new RunExplorerTask(environment));
+            TES.enqueueTask(environment.getCommand(RunServer.class).new RunServerTask(environment, pipeline));
+            TES.enqueueTask(environment.getCommand(RunExplorer.class).new RunExplorerTask(environment, pipeline));
         }
     }
     
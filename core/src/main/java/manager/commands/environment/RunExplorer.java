@@ -29,17 +29,17 @@ public class RunExplorer extends EntityCommand<Environment> {
 
     @Override
     public void execute(Environment environment, Map<String, IComplexType> map) {
-        environment.setVersion(environment.getLayerVersion());
+        LaunchPipeline pipeline = new LaunchPipeline(environment);
         BinarySource source = environment.getBinaries();
         if (source instanceof Release) {
             TES.executeTask(new CheckCache(
                     environment,
-                    new RunExplorerTask(environment)
+                    new RunExplorerTask(environment, pipeline)
 
             ));
         } else {
             TES.enqueueTask(
-                new RunExplorerTask(environment)
+                new RunExplorerTask(environment, pipeline)
             );
         }
     }
@@ -47,21 +47,23 @@ public class RunExplorer extends EntityCommand<Environment> {
     class RunExplorerTask extends AbstractTask<Void> {
 
         private final Environment env;
+        private final LaunchPipeline.Launch launch;
         Process process;
         
-        public RunExplorerTask(Environment env) {
+        RunExplorerTask(Environment env, LaunchPipeline pipeline) {
             super(MessageFormat.format(
                     Language.get(Environment.class, "explorer@task"),
                     env, 
                     env.getBinaries().getPID()
             ));
-            this.env = env;
+            this.env    = env;
+            this.launch = pipeline.launch(() -> env.getExplorerCommand(true));
         }
 
         @Override
         public Void execute() throws Exception {
             BinarySource source = env.getBinaries();
-            final ProcessBuilder builder = new ProcessBuilder(env.getExplorerCommand(true));
+            final ProcessBuilder builder = new ProcessBuilder(launch.getCommand());
             builder.redirectInput(ProcessBuilder.Redirect.INHERIT);
             builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
             builder.redirectError(ProcessBuilder.Redirect.INHERIT);
@@ -81,6 +83,7 @@ public class RunExplorer extends EntityCommand<Environment> {
                 }
             });
             process = builder.start();
+            setProgress(0, launch.getTimings());
             process.waitFor();
             
             return null;
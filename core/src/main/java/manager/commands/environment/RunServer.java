@@ -29,17 +29,17 @@ public class RunServer extends EntityCommand<Environment> {
 
     @Override
     public void execute(Environment environment, Map<String, IComplexType> map) {
-        environment.setVersion(environment.getLayerVersion());
+        LaunchPipeline pipeline = new LaunchPipeline(environment);
         BinarySource source = environment.getBinaries();
         if (source instanceof Release) {
             TES.executeTask(new CheckCache(
                     environment,
-                    new RunServerTask(environment)
+                    new RunServerTask(environment, pipeline)
 
             ));
         } else {
             TES.enqueueTask(
-                new RunServerTask(environment)
+                new RunServerTask(environment, pipeline)
             );
         }
     }
@@ -47,22 +47,24 @@ public class RunServer extends EntityCommand<Environment> {
     class RunServerTask extends AbstractTask<Void> {
 
         private final Environment env;
+        private final LaunchPipeline.Launch launch;
         Process process;
         
-        public RunServerTask(Environment env) {
+        RunServerTask(Environment env, LaunchPipeline pipeline) {
             super(MessageFormat.format(
                     Language.get(Environment.class, "server@task"),
                     env, 
                     env.getBinaries().getPID(),
                     env.getDataBase(false)
             ));
-            this.env = env;
+            this.env    = env;
+            this.launch = pipeline.launch(() -> env.getServerCommand(true));
         }
 
         @Override
         public Void execute() throws Exception {
             BinarySource source = env.getBinaries();
-            final ProcessBuilder builder = new ProcessBuilder(env.getServerCommand(true));
+            final ProcessBuilder builder = new ProcessBuilder(launch.getCommand());
             builder.redirectInput(ProcessBuilder.Redirect.INHERIT);
             builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
             builder.redirectError(ProcessBuilder.Redirect.INHERIT);
@@ -82,13 +84,17 @@ public class RunServer extends EntityCommand<Environment> {
                 }
             });
             process = builder.start();
+            setProgress(0, launch.getTimings());
             process.waitFor();
             
             return null;
         }
 
         @Override
-        public void finished(Void t) {}
+        public void finished(Void t) {
+            // Server may upgrade the database, so the layer version has to be queried again
+            env.invalidateLayerVersion();
+        }
     
     }
     
@@ -0,0 +1,34 @@
+package manager.commands.environment;
+
+import codex.command.EntityCommand;
+import codex.service.ServiceRegistry;
+import codex.task.ITaskExecutorService;
+import codex.task.TaskManager;
+import codex.type.IComplexType;
+import codex.utils.ImageUtils;
+import codex.utils.Language;
+import java.util.Map;
+import manager.nodes.Environment;
+import manager.nodes.Release;
+
+@EntityCommand.Definition(parentCommand = RunAll.class)
+public class VerifyCache extends EntityCommand<Environment> {
+
+    private static final ITaskExecutorService TES = ((ITaskExecutorService) ServiceRegistry.getInstance().lookupService(TaskManager.TaskExecutorService.class));
+
+    public VerifyCache() {
+        super(
+                "verify",
+                Language.get(Environment.class, "verify@command"),
+                ImageUtils.getByPath("/images/update.png"),
+                Language.get(Environment.class, "verify@command"),
+                (environment) -> environment.getBinaries() instanceof Release
+        );
+    }
+
+    @Override
+    public void execute(Environment environment, Map<String, IComplexType> map) {
+        TES.executeTask(new CheckCache(environment, true));
+    }
+
+}
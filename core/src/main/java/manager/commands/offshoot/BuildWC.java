@@ -23,6 +23,7 @@ import java.util.Map;
 public class BuildWC extends EntityCommand<Offshoot> {
 
     private static final String PARAM_CLEAN = "clean";
+    private static final String PARAM_INCREMENTAL = "incremental";
 
     private static BuildingNotifier BUILD_NOTIFIER;
     private static ServerSocket     RMI_SOCKET;
@@ -60,7 +61,8 @@ public class BuildWC extends EntityCommand<Offshoot> {
                 (offshoot) -> offshoot.getWCStatus().equals(WCStatus.Succesfull)
         );
         setParameters(
-                new PropertyHolder<>(PARAM_CLEAN, new Bool(Boolean.FALSE), true)
+                new PropertyHolder<>(PARAM_CLEAN, new Bool(Boolean.FALSE), true),
+                new PropertyHolder<>(PARAM_INCREMENTAL, new Bool(Boolean.FALSE), true)
         );
     }
     
@@ -75,7 +77,7 @@ public class BuildWC extends EntityCommand<Offshoot> {
                 offshoot,
                 new GroupTask<>(
                         Language.get("title") + ": \""+(offshoot).getLocalPath()+"\"",
-                        new BuildKernelTask(offshoot),
+                        new BuildKernelTask(offshoot, map.get(PARAM_INCREMENTAL).getValue() == Boolean.TRUE),
                         new BuildSourceTask(offshoot, map.get(PARAM_CLEAN).getValue() == Boolean.TRUE)
                 ),
                 false
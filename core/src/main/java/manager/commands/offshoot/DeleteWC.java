@@ -5,25 +5,25 @@ import codex.task.AbstractTask;
 import codex.type.IComplexType;
 import codex.utils.ImageUtils;
 import codex.utils.Language;
+import codex.explorer.ExplorerAccessService;
+import codex.explorer.IExplorerAccessService;
+import codex.service.ServiceRegistry;
 import java.io.File;
-import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.file.DirectoryStream;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.text.MessageFormat;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-import javax.swing.SwingUtilities;
+import manager.nodes.Common;
 import manager.nodes.Offshoot;
 import manager.type.WCStatus;
+import manager.utils.DirectoryEraser;
 import org.apache.commons.io.FileDeleteStrategy;
 
 public class DeleteWC extends EntityCommand<Offshoot> {
+
+    private final static IExplorerAccessService EAS = (IExplorerAccessService) ServiceRegistry.getInstance().lookupService(ExplorerAccessService.class);
     
     public DeleteWC() {
         super(
@@ -91,49 +91,17 @@ public class DeleteWC extends EntityCommand<Offshoot> {
             offshoot.setWCLoaded(false);
             offshoot.model.commit(false);
             
-            setProgress(0, Language.get(DeleteWC.class, "command@calc"));
-            long totalFiles = Files.walk(Paths.get(wcPath)).count();
-
-            AtomicInteger processed = new AtomicInteger(0);
-            Files.walkFileTree(Paths.get(wcPath), new SimpleFileVisitor<Path>() {
-
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                    return processPath(file);
-                }
-
-                @Override
-                public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                    return FileVisitResult.CONTINUE;
-                }
-
-                @Override
-                public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
-                    return processPath(dir);
-                }
-                
-                private FileVisitResult processPath(Path path) {
-                    checkPaused();
-                    if (isCancelled()) {
-                        return FileVisitResult.TERMINATE;
-                    }
-                    try {
-                        FileDeleteStrategy.NORMAL.delete(path.toFile());
-                        processed.addAndGet(1);
-                        String fileName = path.toString().replace(wcPath + File.separator, "");
-                        setProgress(
-                                (int) (processed.get() * 100 / totalFiles),
-                                MessageFormat.format(
-                                        Language.get(DeleteWC.class, "command@progress"),
-                                        fileName
-                                )
-                        );
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+            Path wcDir    = Paths.get(wcPath);
+            Path trashDir = ((Common) EAS.getRoot()).getTrashDir();
+            if (!DirectoryEraser.isTrashEnabled() || trashDir == null || !DirectoryEraser.moveToTrash(wcDir, trashDir)) {
+                new DirectoryEraser(wcDir, this::isCancelled, this::checkPaused, (percent, current) -> setProgress(
+                        percent,
+                        MessageFormat.format(
+                                Language.get(DeleteWC.class, "command@progress"),
+                                current.toString().replace(wcPath + File.separator, "")
+                        )
+                )).delete(0);
+            }
          
             try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(Paths.get(wcPath).getParent());) {
                 if (!dirStream.iterator().hasNext()) {
@@ -145,7 +113,7 @@ public class DeleteWC extends EntityCommand<Offshoot> {
 
         @Override
         public void finished(Void t) {
-            SwingUtilities.invokeLater(() -> {
+            offshoot.refreshWCStatus(() -> {
                 if (!isCancelled() && offshoot.getWorkingCopyStatus() == WCStatus.Absent) {
                     offshoot.model.remove();
                 } else {
@@ -8,16 +8,14 @@ import codex.utils.ImageUtils;
 import codex.utils.Language;
 import java.io.File;
 import java.nio.channels.ClosedChannelException;
-import java.nio.file.Path;
 import java.text.MessageFormat;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
-import javax.swing.SwingUtilities;
 import manager.nodes.Offshoot;
 import static manager.nodes.Offshoot.DATE_FORMAT;
+import manager.svn.ChangeSet;
 import manager.svn.SVN;
 import manager.type.WCStatus;
 import org.tmatesoft.svn.core.*;
@@ -85,7 +83,7 @@ public class UpdateWC extends EntityCommand<Offshoot> {
 
             setProgress(0, Language.get(UpdateWC.class, "command@calc"));
             try {
-                List<Path> changes = SVN.changes(wcPath, repoUrl, revision, authMgr, new ISVNEventHandler() {
+                ChangeSet changes = SVN.changes(wcPath, repoUrl, revision, authMgr, new ISVNEventHandler() {
                     @Override
                     public void handleEvent(SVNEvent event, double d) throws SVNException {
                         if (event.getErrorMessage() != null && event.getErrorMessage().getErrorCode() == SVNErrorCode.WC_CLEANUP_REQUIRED) {
@@ -150,10 +148,12 @@ public class UpdateWC extends EntityCommand<Offshoot> {
 //                                            System.err.println(event.getErrorMessage());
 //                                            System.err.println(event.getExpectedAction());
 //                                            Logger.getLogger().warn("Conflict: {0}", event.getFile().getPath());
-                                            System.err.println(action + " / " + event.getFile().getPath().replace(wcPath+File.separator, ""));
+                                            Logger.getLogger().debug("Unexpected update action: {0} / {1}", action, event.getFile().getPath().replace(wcPath+File.separator, ""));
+                                        }
+                                    } else if (!changes.hasChangesUnder(event.getFile().toPath())) {
+                                        if (event.getFile().isFile()) {
+                                            Logger.getLogger().debug("Update event outside of expected changes: {0}", event);
                                         }
-                                    } else {
-                                        if (event.getFile().isFile()) System.out.println(event);
                                     }
                                 }
                             }
@@ -167,6 +167,7 @@ public class UpdateWC extends EntityCommand<Offshoot> {
                             }
                         }
                     );
+                    offshoot.invalidateWCStatus();
                     String strR2 = new StringBuilder()
                             .append(offshoot.getWorkingCopyRevision(false))
                             .append("/").append(DATE_FORMAT.format(offshoot.getWorkingCopyRevisionDate(false)))
@@ -199,8 +200,7 @@ public class UpdateWC extends EntityCommand<Offshoot> {
 
         @Override
         public void finished(Void res) {
-            SwingUtilities.invokeLater(() -> {
-                offshoot.model.updateDynamicProps();
+            offshoot.refreshWCStatus(() -> {
                 offshoot.setWCLoaded(offshoot.getWCStatus().equals(WCStatus.Succesfull));
                 try {
                     offshoot.model.commit(false);
@@ -0,0 +1,111 @@
+package manager.commands.offshoot.build;
+
+import org.radixware.kernel.common.check.RadixProblem;
+import javax.swing.*;
+import java.rmi.RemoteException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class BuildEventChannel {
+
+    private final static int  BATCH_SIZE     = 200;
+    private final static long FLUSH_INTERVAL = 100;
+    private final static int  CAPACITY       = 20 * BATCH_SIZE;
+
+    private final IBuildingNotifier notifier;
+    private final UUID uuid;
+
+    private final Map<String, Integer> iconIds = new HashMap<>();
+    private final BlockingQueue<IBuildingNotifier.Event> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final AtomicReference<RemoteException> failure = new AtomicReference<>();
+    private final Thread flusher;
+    private volatile boolean closed = false;
+
+    BuildEventChannel(IBuildingNotifier notifier, UUID uuid) {
+        this.notifier = notifier;
+        this.uuid     = uuid;
+        this.flusher  = new Thread(this::run, "Build event channel");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    void event(RadixProblem.ESeverity severity, String defId, String name, String iconUri, ImageIcon icon, String message) throws RemoteException {
+        checkFailure();
+        int iconId = getIconId(iconUri, icon);
+        try {
+            // Blocks while the manager lags behind
+            queue.put(new IBuildingNotifier.Event(severity, defId, name, iconId, message));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println(MessageFormat.format("Build event dropped on interrupt: [{0}] {1}: {2}", severity, name, message));
+        }
+    }
+
+    void close() throws RemoteException {
+        closed = true;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    private synchronized int getIconId(String iconUri, ImageIcon icon) throws RemoteException {
+        if (icon == null) {
+            return -1;
+        }
+        Integer iconId = iconIds.get(iconUri);
+        if (iconId == null) {
+            iconId = iconIds.size();
+            notifier.icon(uuid, iconId, icon);
+            iconIds.put(iconUri, iconId);
+        }
+        return iconId;
+    }
+
+    private void checkFailure() throws RemoteException {
+        RemoteException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<IBuildingNotifier.Event> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                IBuildingNotifier.Event first = queue.poll(FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + FLUSH_INTERVAL;
+                while (batch.size() < BATCH_SIZE) {
+                    long timeout = deadline - System.currentTimeMillis();
+                    IBuildingNotifier.Event next = timeout > 0 ? queue.poll(timeout, TimeUnit.MILLISECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                notifier.events(uuid, new ArrayList<>(batch));
+                batch.clear();
+            }
+        } catch (RemoteException e) {
+            failure.set(e);
+            queue.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -15,6 +15,8 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.StringJoiner;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
@@ -22,6 +24,8 @@ import java.util.concurrent.atomic.AtomicReference;
 public class BuildKernelTask extends AbstractTask<Void> {
 
     private final Offshoot offshoot;
+    private final boolean  incremental;
+    private final List<String> skipped = new LinkedList<>();
     private final Thread  hook = new Thread(() -> {
         if (!getStatus().isFinal()) {
             cancel(true);
@@ -29,8 +33,13 @@ public class BuildKernelTask extends AbstractTask<Void> {
     });
 
     public BuildKernelTask(Offshoot offshoot) {
+        this(offshoot, false);
+    }
+
+    public BuildKernelTask(Offshoot offshoot, boolean incremental) {
         super(Language.get(BuildWC.class, "command@kernel"));
-        this.offshoot = offshoot;
+        this.offshoot    = offshoot;
+        this.incremental = incremental;
     }
 
     @Override
@@ -40,6 +49,8 @@ public class BuildKernelTask extends AbstractTask<Void> {
 
     @Override
     public Void execute() throws Exception {
+        // Kernel binaries are on the daemon class path and must not be held open
+        BuilderDaemonPool.stop(offshoot);
         UUID uuid = UUID.randomUUID();
         final File currentJar = UpgradeService.getCurrentJar();
 
@@ -108,6 +119,7 @@ public class BuildKernelTask extends AbstractTask<Void> {
         command.add("-Dport="+BuildWC.getPort());
         command.add("-Duuid="+uuid.toString());
         command.add("-Dpath="+offshoot.getLocalPath());
+        command.add("-Dincremental="+incremental);
 
         command.add(KernelBuilder.class.getCanonicalName());
 
@@ -134,6 +146,15 @@ public class BuildKernelTask extends AbstractTask<Void> {
                 setProgress(getProgress(), text);
             }
 
+            @Override
+            public void skipped(List<String> layers) {
+                skipped.addAll(layers);
+                setProgress(getProgress(), MessageFormat.format(
+                        Language.get(BuildWC.class, "command@skipped"),
+                        String.join(", ", layers)
+                ));
+            }
+
             @Override
             public void isPaused() {
                 checkPaused();
@@ -189,5 +210,11 @@ public class BuildKernelTask extends AbstractTask<Void> {
                 offshoot.getLocalPath(), DateUtils.formatElapsedTime(getDuration()),
                 isCancelled() ? "canceled" : "finished"
         ));
+        if (!skipped.isEmpty()) {
+            Logger.getLogger().info(MessageFormat.format(
+                    "BUILD KERNEL [{0}] skipped up-to-date layers: {1}",
+                    offshoot.getLocalPath(), String.join(", ", skipped)
+            ));
+        }
     }
 }
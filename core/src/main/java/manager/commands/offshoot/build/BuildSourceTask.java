@@ -21,12 +21,14 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
+import java.rmi.ConnectException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class BuildSourceTask extends AbstractTask<Error> {
@@ -46,13 +48,6 @@ public class BuildSourceTask extends AbstractTask<Error> {
     });
 
     private final EventTreeModel eventsTreeModel = new EventTreeModel();
-    private final List<CompilerEvent> eventsList = new LinkedList<CompilerEvent>() {
-        @Override
-        public boolean add(CompilerEvent compilerEvent) {
-            eventsTreeModel.addEvent(compilerEvent);
-            return super.add(compilerEvent);
-        }
-    };
 
     public BuildSourceTask(Offshoot offshoot, boolean clean) {
         super(Language.get(BuildWC.class, "command@sources"));
@@ -98,6 +93,11 @@ public class BuildSourceTask extends AbstractTask<Error> {
         command.add("-cp");
         command.add(classPath);
 
+        File directory = currentJar.isFile() ? currentJar.getParentFile() : currentJar;
+        if (BuilderDaemonPool.isEnabled()) {
+            return executeInDaemon(uuid, command, directory);
+        }
+
         command.add("-Dport="+BuildWC.getPort());
         command.add("-Duuid="+uuid.toString());
         command.add("-Dpath="+offshoot.getLocalPath());
@@ -112,7 +112,68 @@ public class BuildSourceTask extends AbstractTask<Error> {
         builder.redirectOutput(temp);
 
         AtomicReference<Throwable> errorRef = new AtomicReference<>(null);
-        BuildWC.getBuildNotifier().addListener(uuid, new IBuildingNotifier.IBuildListener() {
+        BuildWC.getBuildNotifier().addListener(uuid, createListener(errorRef));
+        builder.directory(directory);
+
+        Runtime.getRuntime().addShutdownHook(hook);
+        Process process = builder.start();
+        addListener(new ITaskListener() {
+            @Override
+            public void statusChanged(ITask task, Status status) {
+                if (status.equals(Status.CANCELLED)) {
+                    process.destroy();
+                }
+            }
+        });
+        process.waitFor();
+        BuildWC.getBuildNotifier().removeListener(uuid);
+        Runtime.getRuntime().removeShutdownHook(hook);
+        if (process.isAlive()) process.destroy();
+
+        return checkResult(errorRef.get());
+    }
+
+    private Error executeInDaemon(UUID uuid, List<String> command, File directory) throws Exception {
+        AtomicReference<Throwable> errorRef = new AtomicReference<>(null);
+        BuildWC.getBuildNotifier().addListener(uuid, createListener(errorRef));
+        addListener(new ITaskListener() {
+            @Override
+            public void statusChanged(ITask task, Status status) {
+                if (status.equals(Status.CANCELLED)) {
+                    BuilderDaemonPool.stop(offshoot);
+                }
+            }
+        });
+        try {
+            try {
+                BuilderDaemonPool.acquire(offshoot, command, directory).build(uuid, clean);
+            } catch (ConnectException | NoSuchObjectException e) {
+                // Call has not reached the daemon, build is started once more in a fresh one unless it was cancelled
+                BuilderDaemonPool.stop(offshoot);
+                if (isCancelled()) {
+                    return null;
+                }
+                IBuilderDaemon daemon = BuilderDaemonPool.acquire(offshoot, command, directory);
+                if (isCancelled()) {
+                    BuilderDaemonPool.stop(offshoot);
+                    return null;
+                }
+                daemon.build(uuid, clean);
+            }
+        } catch (RemoteException e) {
+            BuilderDaemonPool.stop(offshoot);
+            if (isCancelled()) {
+                return null;
+            }
+            errorRef.compareAndSet(null, e);
+        } finally {
+            BuildWC.getBuildNotifier().removeListener(uuid);
+        }
+        return checkResult(errorRef.get());
+    }
+
+    private IBuildingNotifier.IBuildListener createListener(AtomicReference<Throwable> errorRef) {
+        return new IBuildingNotifier.IBuildListener() {
             @Override
             public void error(Throwable ex) {
                 errorRef.set(ex);
@@ -120,14 +181,15 @@ public class BuildSourceTask extends AbstractTask<Error> {
 
             @Override
             public void event(RadixProblem.ESeverity severity, String defId, String name, ImageIcon icon, String message) {
-                CompilerEvent event = new CompilerEvent(severity, defId, name, icon, message);
-                synchronized (eventsList) {
-                    eventsList.add(event);
-                    //eventsTreeModel.addEvent(event);
-                }
+                eventsTreeModel.addEvent(new CompilerEvent(severity, defId, name, icon, message));
                 setProgress(getProgress(), getDescription());
             }
 
+            @Override
+            public void events(List<CompilerEvent> events) {
+                eventsTreeModel.addEvents(events);
+                setProgress(getProgress(), getDescription());
+            }
 
             @Override
             public void progress(int percent) {
@@ -143,30 +205,11 @@ public class BuildSourceTask extends AbstractTask<Error> {
             public void isPaused() {
                 checkPaused();
             }
-        });
-
-        if (currentJar.isFile()) {
-            builder.directory(currentJar.getParentFile());
-        } else {
-            builder.directory(currentJar);
-        }
-
-        Runtime.getRuntime().addShutdownHook(hook);
-        Process process = builder.start();
-        addListener(new ITaskListener() {
-            @Override
-            public void statusChanged(ITask task, Status status) {
-                if (status.equals(Status.CANCELLED)) {
-                    process.destroy();
-                }
-            }
-        });
-        process.waitFor();
-        BuildWC.getBuildNotifier().removeListener(uuid);
-        Runtime.getRuntime().removeShutdownHook(hook);
-        if (process.isAlive()) process.destroy();
+        };
+    }
 
-        if (errorRef.get() != null) {
+    private Error checkResult(Throwable error) throws ExecuteException {
+        if (error != null) {
             offshoot.setBuiltStatus(new BuildStatus(offshoot.getWorkingCopyRevision(false).getNumber(), true));
             try {
                 offshoot.model.commit(false);
@@ -179,19 +222,11 @@ public class BuildSourceTask extends AbstractTask<Error> {
             );
             throw new ExecuteException(
                     message,
-                    message.concat("\n").concat(Logger.stackTraceToString(errorRef.get()))
+                    message.concat("\n").concat(Logger.stackTraceToString(error))
             );
         }
-        if (eventsList.stream().anyMatch(event -> event.getSeverity() == RadixProblem.ESeverity.ERROR)) {
-            Map<String, List<String>> errorIndex = new HashMap<>();
-            eventsList.stream()
-                    .filter(event -> event.getSeverity() == RadixProblem.ESeverity.ERROR)
-                    .forEach(event -> {
-                        if (!errorIndex.containsKey(event.getDefId())) {
-                            errorIndex.put(event.getDefId(), new LinkedList<>());
-                        }
-                        errorIndex.get(event.getDefId()).add(event.getMessage());
-                    });
+        if (getErrorsCount() > 0) {
+            Map<String, List<String>> errorIndex = eventsTreeModel.getErrorIndex();
             offshoot.setBuiltStatus(new BuildStatus(offshoot.getWorkingCopyRevision(false).getNumber(), true));
             try {
                 offshoot.model.commit(false);
@@ -238,11 +273,11 @@ public class BuildSourceTask extends AbstractTask<Error> {
     }
 
     private long getErrorsCount() {
-        return eventsList.stream().filter(event -> event.getSeverity() == RadixProblem.ESeverity.ERROR).count();
+        return eventsTreeModel.getCount(RadixProblem.ESeverity.ERROR);
     }
 
     private long getWarningsCount() {
-        return eventsList.stream().filter(event -> event.getSeverity() == RadixProblem.ESeverity.WARNING).count();
+        return eventsTreeModel.getCount(RadixProblem.ESeverity.WARNING);
     }
 
     @Override
@@ -283,17 +318,7 @@ public class BuildSourceTask extends AbstractTask<Error> {
             problemsView.setVisible(false);
             problemsView.setPreferredSize(new Dimension(getPreferredSize().width, getPreferredSize().height*5));
 
-            DefaultMutableTreeNode root = (DefaultMutableTreeNode) treeModel.getRoot();
-            treeModel.setFilter(compilerEvent ->
-                    compilerEvent.getSeverity().equals(RadixProblem.ESeverity.ERROR) || showWarnings.isSelected()
-            );
-            showWarnings.addItemListener(event -> {
-                synchronized (eventsList) {
-                    root.removeAllChildren();
-                    treeModel.nodeStructureChanged(root);
-                    eventsList.forEach(treeModel::addEvent);
-                }
-            });
+            showWarnings.addItemListener(event -> treeModel.setShowWarnings(showWarnings.isSelected()));
             problemsStatus.addMouseListener(new MouseAdapter() {
                 @Override
                 public void mouseClicked(MouseEvent e) {
@@ -317,6 +342,12 @@ public class BuildSourceTask extends AbstractTask<Error> {
                     super.treeStructureChanged(event);
                     tree.expandPath(event.getTreePath());
                 }
+
+                @Override
+                public void treeNodesInserted(TreeModelEvent event) {
+                    super.treeNodesInserted(event);
+                    tree.expandPath(event.getTreePath());
+                }
             });
             tree.setCellRenderer((tree1, value, selected, expanded, leaf, row, hasFocus) -> {
                 JLabel label;
@@ -357,7 +388,7 @@ public class BuildSourceTask extends AbstractTask<Error> {
         @Override
         public void statusChanged(ITask task, Status taskStatus) {
             super.statusChanged(task, taskStatus);
-            if (taskStatus.equals(Status.FAILED) && eventsList.stream().anyMatch(event -> event.getSeverity() == RadixProblem.ESeverity.ERROR)) {
+            if (taskStatus.equals(Status.FAILED) && getErrorsCount() > 0) {
                 showWarnings.setSelected(false);
             }
         }
@@ -389,32 +420,116 @@ public class BuildSourceTask extends AbstractTask<Error> {
 
     private class EventTreeModel extends DefaultTreeModel {
 
-        private final DefaultMutableTreeNode root;
-        private Predicate<CompilerEvent> filter = compilerEvent -> true;
+        private final DefaultMutableTreeNode  root;
+        private final Map<String, Definition> index  = new LinkedHashMap<>();
+        private final Map<RadixProblem.ESeverity, Long> counters = new EnumMap<>(RadixProblem.ESeverity.class);
+        private boolean showWarnings = false;
 
         EventTreeModel() {
             super(new DefaultMutableTreeNode("Problems"));
             root = (DefaultMutableTreeNode) getRoot();
         }
 
-        void setFilter(Predicate<CompilerEvent> filter) {
-            this.filter = filter;
+        synchronized long getCount(RadixProblem.ESeverity severity) {
+            return counters.getOrDefault(severity, 0L);
         }
 
-        @SuppressWarnings("unchecked")
-        void addEvent(CompilerEvent event) {
-            if (filter.test(event)) {
-                Definition definition = ((List<Definition>) Collections.list(root.children())).stream()
-                        .filter(childDef -> childDef.defId.equals(event.getDefId()))
-                        .findFirst().orElse(new Definition(event.getDefId(), event.getName(), event.getIcon()));
-                Problem problem = new Problem(event.getSeverity(), event.getMessage());
-
-                if (definition.getParent() == null) {
-                    root.add(definition);
-                    nodesWereInserted(root, new int[]{root.getIndex(definition)});
-                }
+        synchronized Map<String, List<String>> getErrorIndex() {
+            Map<String, List<String>> errorIndex = new LinkedHashMap<>();
+            index.forEach((defId, definition) -> definition.problems.stream()
+                    .filter(problem -> problem.severity == RadixProblem.ESeverity.ERROR)
+                    .forEach(problem -> errorIndex.computeIfAbsent(defId, key -> new LinkedList<>()).add(problem.message))
+            );
+            return errorIndex;
+        }
+
+        synchronized void addEvents(List<CompilerEvent> events) {
+            events.forEach(this::addEvent);
+        }
+
+        synchronized void addEvent(CompilerEvent event) {
+            counters.merge(event.getSeverity(), 1L, Long::sum);
+            Definition definition = index.computeIfAbsent(
+                    event.getDefId(),
+                    defId -> new Definition(defId, event.getName(), event.getIcon())
+            );
+            Problem problem = new Problem(event.getSeverity(), event.getMessage());
+            definition.problems.add(problem);
+
+            if (isVisible(problem)) {
+                attach(definition);
                 definition.add(problem);
-                nodeStructureChanged(definition);
+                nodesWereInserted(definition, new int[]{definition.getIndex(problem)});
+            }
+        }
+
+        synchronized void setShowWarnings(boolean showWarnings) {
+            if (this.showWarnings == showWarnings) {
+                return;
+            }
+            this.showWarnings = showWarnings;
+            index.values().forEach(definition -> {
+                if (showWarnings) {
+                    insertWarnings(definition);
+                } else {
+                    removeWarnings(definition);
+                }
+            });
+        }
+
+        private boolean isVisible(Problem problem) {
+            return problem.severity == RadixProblem.ESeverity.ERROR || showWarnings;
+        }
+
+        private void attach(Definition definition) {
+            if (definition.getParent() == null) {
+                root.add(definition);
+                nodesWereInserted(root, new int[]{root.getIndex(definition)});
+            }
+        }
+
+        private void insertWarnings(Definition definition) {
+            if (definition.problems.stream().noneMatch(problem -> problem.severity != RadixProblem.ESeverity.ERROR)) {
+                return;
+            }
+            boolean attached = definition.getParent() != null;
+            List<Integer> inserted = new LinkedList<>();
+            int position = 0;
+            for (Problem problem : definition.problems) {
+                if (problem.severity != RadixProblem.ESeverity.ERROR) {
+                    definition.insert(problem, position);
+                    inserted.add(position);
+                }
+                position++;
+            }
+            if (attached) {
+                nodesWereInserted(definition, inserted.stream().mapToInt(Integer::intValue).toArray());
+            } else {
+                attach(definition);
+            }
+        }
+
+        private void removeWarnings(Definition definition) {
+            List<Integer> removedIdx = new LinkedList<>();
+            List<Object>  removed    = new LinkedList<>();
+            for (int position = 0; position < definition.getChildCount(); position++) {
+                Problem problem = (Problem) definition.getChildAt(position);
+                if (problem.severity != RadixProblem.ESeverity.ERROR) {
+                    removedIdx.add(position);
+                    removed.add(problem);
+                }
+            }
+            if (removed.isEmpty()) {
+                return;
+            }
+            if (removed.size() == definition.getChildCount()) {
+                int defIndex = root.getIndex(definition);
+                root.remove(defIndex);
+                removed.forEach(problem -> definition.remove((Problem) problem));
+                nodesWereRemoved(root, new int[]{defIndex}, new Object[]{definition});
+            } else {
+                removed.forEach(problem -> definition.remove((Problem) problem));
+                nodesWereRemoved(definition, removedIdx.stream().mapToInt(Integer::intValue).toArray(), removed.toArray());
             }
         }
 
@@ -424,6 +539,7 @@ public class BuildSourceTask extends AbstractTask<Error> {
         private final String defId;
         private final String defName;
         private final ImageIcon defIcon;
+        private final List<Problem> problems = new ArrayList<>();
 
         Definition(String defId, String defName, ImageIcon defIcon) {
             this.defId   = defId;
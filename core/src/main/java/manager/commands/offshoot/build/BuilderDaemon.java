@@ -0,0 +1,194 @@
+package manager.commands.offshoot.build;
+
+import org.radixware.kernel.common.repository.Branch;
+import org.radixware.kernel.common.repository.Layer;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+public class BuilderDaemon extends UnicastRemoteObject implements IBuilderDaemon {
+
+    private final static long   CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+    private final static double MEMORY_LIMIT   = 0.75;
+
+    private final IBuildingNotifier notifier;
+    private final File   localDir;
+    private final long   idleTimeout;
+    private final String classPathStamp;
+
+    private Branch  branch;
+    private long    loaded;
+    private volatile boolean exhausted = false;
+    private final Object state = new Object();
+    private boolean busy    = false;
+    private boolean exiting = false;
+    private long    lastActivity = System.currentTimeMillis();
+
+    public static void main(String[] args) throws Exception {
+        SourceBuilder.setupLocale();
+
+        Integer port = Integer.valueOf(System.getProperty("port"));
+        UUID    uuid = UUID.fromString(System.getProperty("uuid"));
+        String  path = System.getProperty("path");
+        long    idle = Long.parseLong(System.getProperty("idle"));
+
+        Registry reg = LocateRegistry.getRegistry(port);
+        IBuildingNotifier notifier = (IBuildingNotifier) reg.lookup(BuildingNotifier.class.getCanonicalName());
+
+        BuilderDaemon daemon = new BuilderDaemon(notifier, new File(path), idle);
+        notifier.daemon(uuid, daemon);
+        daemon.watch();
+    }
+
+    private BuilderDaemon(IBuildingNotifier notifier, File localDir, long idleTimeout) throws RemoteException {
+        this.notifier       = notifier;
+        this.localDir       = localDir;
+        this.idleTimeout    = idleTimeout;
+        this.classPathStamp = getClassPathStamp();
+    }
+
+    @Override
+    public boolean isReusable() {
+        return !exhausted && classPathStamp.equals(getClassPathStamp());
+    }
+
+    @Override
+    public boolean reserve() {
+        synchronized (state) {
+            if (exiting) {
+                return false;
+            }
+            // Acquired daemon does not exit before the build call arrives
+            lastActivity = System.currentTimeMillis();
+            return true;
+        }
+    }
+
+    @Override
+    public void build(UUID uuid, boolean clean) throws RemoteException {
+        synchronized (state) {
+            // Builds run one at a time, while other calls are answered without waiting for them
+            while (busy) {
+                try {
+                    state.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RemoteException("Builder daemon has been interrupted", e);
+                }
+            }
+            busy = true;
+        }
+        try {
+            SourceBuilder.setupErrorHandler(notifier, uuid);
+            SourceBuilder.build(notifier, uuid, clean, this::getBranch);
+        } catch (RemoteException e) {
+            throw e;
+        } catch (Throwable e) {
+            branch = null;
+            notifier.error(uuid, e);
+        } finally {
+            exhausted = isMemoryExhausted();
+            synchronized (state) {
+                lastActivity = System.currentTimeMillis();
+                busy = false;
+                state.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        Thread thread = new Thread(() -> System.exit(0));
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() throws InterruptedException {
+        while (true) {
+            Thread.sleep(Math.min(idleTimeout, CHECK_INTERVAL));
+            synchronized (state) {
+                if (!busy && System.currentTimeMillis() - lastActivity >= idleTimeout) {
+                    exiting = true;
+                    break;
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private Branch getBranch() throws IOException {
+        if (branch == null || isModified(branch, loaded)) {
+            loaded = System.currentTimeMillis();
+            branch = Branch.Factory.loadFromDir(localDir);
+        }
+        return branch;
+    }
+
+    private static boolean isModified(Branch branch, long since) throws IOException {
+        for (Layer layer : branch.getLayers()) {
+            if (isModified(layer.getDirectory().toPath(), since)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isModified(Path layerDir, long since) throws IOException {
+        final boolean[] modified = {false};
+        Files.walkFileTree(layerDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (KernelFingerprint.isOutputDir(layerDir, dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return check(attrs);
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                return check(attrs);
+            }
+
+            private FileVisitResult check(BasicFileAttributes attrs) {
+                modified[0] = attrs.lastModifiedTime().toMillis() >= since;
+                return modified[0] ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+            }
+        });
+        return modified[0];
+    }
+
+    private String getClassPathStamp() {
+        StringJoiner stamp = new StringJoiner(";");
+        for (String dirName : Arrays.asList("bin", "lib")) {
+            File[] files = new File(localDir, String.join(File.separator, "org.radixware", "kernel", "common", dirName)).listFiles();
+            if (files != null) {
+                Arrays.sort(files);
+                for (File file : files) {
+                    stamp.add(file.getName() + ":" + file.length() + ":" + file.lastModified());
+                }
+            }
+        }
+        return stamp.toString();
+    }
+
+    private static boolean isMemoryExhausted() {
+        long max = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+        long retained = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+                .mapToLong(pool -> pool.getCollectionUsage().getUsed())
+                .sum();
+        return max > 0 && retained > max * MEMORY_LIMIT;
+    }
+
+}
@@ -0,0 +1,203 @@
+package manager.commands.offshoot.build;
+
+import codex.log.Logger;
+import manager.commands.offshoot.BuildWC;
+import manager.nodes.Offshoot;
+import java.io.File;
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+final class BuilderDaemonPool {
+
+    private final static boolean ENABLED       = Boolean.parseBoolean(System.getProperty("manager.builder.daemon", "false"));
+    private final static long    IDLE_TIMEOUT  = TimeUnit.MINUTES.toMillis(Long.getLong("manager.builder.idleTimeout", 15));
+    private final static long    START_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    private final static Map<String, CompletableFuture<Daemon>> DAEMONS = new HashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            synchronized (DAEMONS) {
+                DAEMONS.values().stream()
+                        .map(BuilderDaemonPool::getStarted)
+                        .filter(Objects::nonNull)
+                        .forEach(daemon -> daemon.process.destroy());
+            }
+        }));
+    }
+
+    private static final class Daemon {
+        final List<String>   command;
+        final Process        process;
+        final IBuilderDaemon stub;
+
+        Daemon(List<String> command, Process process, IBuilderDaemon stub) {
+            this.command = command;
+            this.process = process;
+            this.stub    = stub;
+        }
+    }
+
+    private BuilderDaemonPool() {}
+
+    static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    static IBuilderDaemon acquire(Offshoot offshoot, List<String> command, File directory) throws IOException, InterruptedException {
+        String key = offshoot.getLocalPath();
+        while (true) {
+            CompletableFuture<Daemon> future;
+            boolean starting = false;
+            synchronized (DAEMONS) {
+                future = DAEMONS.get(key);
+                if (future == null) {
+                    future = new CompletableFuture<>();
+                    DAEMONS.put(key, future);
+                    starting = true;
+                }
+            }
+            // Daemon is started outside of the pool lock, concurrent builds of the offshoot wait for the same start
+            if (starting) {
+                try {
+                    future.complete(start(offshoot, command, directory));
+                } catch (IOException | InterruptedException e) {
+                    remove(key, future);
+                    future.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            Daemon daemon;
+            try {
+                daemon = future.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Unable to start builder daemon", e.getCause());
+            }
+            if (isReusable(daemon, command) && reserve(daemon)) {
+                return daemon.stub;
+            }
+            if (remove(key, future)) {
+                shutdown(daemon);
+            }
+            if (starting) {
+                throw new IOException("Builder daemon is not available");
+            }
+        }
+    }
+
+    static void stop(Offshoot offshoot) {
+        CompletableFuture<Daemon> future;
+        synchronized (DAEMONS) {
+            future = DAEMONS.remove(offshoot.getLocalPath());
+        }
+        Daemon daemon = future == null ? null : getStarted(future);
+        if (daemon != null) {
+            shutdown(daemon);
+        }
+    }
+
+    private static boolean remove(String key, CompletableFuture<Daemon> future) {
+        synchronized (DAEMONS) {
+            return DAEMONS.remove(key, future);
+        }
+    }
+
+    private static Daemon getStarted(CompletableFuture<Daemon> future) {
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    private static void shutdown(Daemon daemon) {
+        try {
+            daemon.stub.shutdown();
+            daemon.process.waitFor(5, TimeUnit.SECONDS);
+        } catch (RemoteException e) {
+            //
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (daemon.process.isAlive()) {
+            daemon.process.destroy();
+        }
+    }
+
+    private static boolean isReusable(Daemon daemon, List<String> command) {
+        try {
+            return daemon.process.isAlive() && daemon.command.equals(command) && daemon.stub.isReusable();
+        } catch (RemoteException e) {
+            return false;
+        }
+    }
+
+    private static boolean reserve(Daemon daemon) {
+        try {
+            // Daemon postpones idle exit until the build call arrives or refuses if it is already exiting
+            return daemon.stub.reserve();
+        } catch (RemoteException e) {
+            return false;
+        }
+    }
+
+    private static Daemon start(Offshoot offshoot, List<String> command, File directory) throws IOException, InterruptedException {
+        UUID uuid = UUID.randomUUID();
+        List<String> daemonCommand = new ArrayList<>(command);
+        daemonCommand.add("-Dport="+BuildWC.getPort());
+        daemonCommand.add("-Duuid="+uuid.toString());
+        daemonCommand.add("-Dpath="+offshoot.getLocalPath());
+        daemonCommand.add("-Didle="+IDLE_TIMEOUT);
+        daemonCommand.add(BuilderDaemon.class.getCanonicalName());
+
+        final ProcessBuilder builder = new ProcessBuilder(daemonCommand);
+        File temp = File.createTempFile("build_daemon", ".tmp", new File(offshoot.getLocalPath()));
+        temp.deleteOnExit();
+        builder.redirectError(temp);
+        builder.redirectOutput(temp);
+        builder.directory(directory);
+
+        CompletableFuture<IBuilderDaemon> started = new CompletableFuture<>();
+        BuildWC.getBuildNotifier().addListener(uuid, new IBuildingNotifier.IBuildListener() {
+            @Override
+            public void error(Throwable ex) {
+                started.completeExceptionally(ex);
+            }
+
+            @Override
+            public void isPaused() {}
+
+            @Override
+            public void daemon(IBuilderDaemon daemon) {
+                started.complete(daemon);
+            }
+        });
+        Process process = builder.start();
+        Thread watcher = new Thread(() -> {
+            try {
+                started.completeExceptionally(new IOException("Builder daemon exited with code " + process.waitFor()));
+            } catch (InterruptedException e) {
+                //
+            }
+        }, "Builder daemon watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        try {
+            IBuilderDaemon stub = started.get(START_TIMEOUT, TimeUnit.MILLISECONDS);
+            Logger.getLogger().debug("Builder daemon started for [{0}]", offshoot.getLocalPath());
+            return new Daemon(command, process, stub);
+        } catch (ExecutionException | TimeoutException e) {
+            process.destroy();
+            throw new IOException("Unable to start builder daemon", e instanceof ExecutionException ? e.getCause() : e);
+        } finally {
+            BuildWC.getBuildNotifier().removeListener(uuid);
+        }
+    }
+
+}
@@ -4,14 +4,18 @@ import org.radixware.kernel.common.check.RadixProblem;
 import javax.swing.*;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.concurrent.ConcurrentHashMap;
 
 
 public class BuildingNotifier extends UnicastRemoteObject implements IBuildingNotifier {
     
     private final Map<UUID, IBuildListener> listeners = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<Integer, ImageIcon>> icons = new ConcurrentHashMap<>();
     
     public BuildingNotifier() throws RemoteException {}
 
@@ -24,6 +28,7 @@ public class BuildingNotifier extends UnicastRemoteObject implements IBuildingNo
     void removeListener(UUID uuid) {
         synchronized (listeners) {
             listeners.remove(uuid);
+            icons.remove(uuid);
         }
     }
 
@@ -41,6 +46,22 @@ public class BuildingNotifier extends UnicastRemoteObject implements IBuildingNo
         }
     }
 
+    @Override
+    public void icon(UUID uuid, int iconId, ImageIcon icon) throws RemoteException {
+        icons.computeIfAbsent(uuid, key -> new ConcurrentHashMap<>()).put(iconId, icon);
+    }
+
+    @Override
+    public void events(UUID uuid, List<Event> events) throws RemoteException {
+        if (listeners.containsKey(uuid)) {
+            Map<Integer, ImageIcon> iconMap = icons.getOrDefault(uuid, Collections.emptyMap());
+            listeners.get(uuid).events(events.stream()
+                    .map(event -> new CompilerEvent(event.severity, event.defId, event.name, iconMap.get(event.iconId), event.message))
+                    .collect(Collectors.toList())
+            );
+        }
+    }
+
     @Override
     public void progress(UUID uuid, int percent) throws RemoteException {
         if (listeners.containsKey(uuid)) {
@@ -55,10 +76,24 @@ public class BuildingNotifier extends UnicastRemoteObject implements IBuildingNo
         }
     }
 
+    @Override
+    public void skipped(UUID uuid, List<String> layers) throws RemoteException {
+        if (listeners.containsKey(uuid)) {
+            listeners.get(uuid).skipped(layers);
+        }
+    }
+
     @Override
     public void isPaused(UUID uuid) throws RemoteException {
         if (listeners.containsKey(uuid)) {
             listeners.get(uuid).isPaused();
         }
     }
+
+    @Override
+    public void daemon(UUID uuid, IBuilderDaemon daemon) throws RemoteException {
+        if (listeners.containsKey(uuid)) {
+            listeners.get(uuid).daemon(daemon);
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package manager.commands.offshoot.build;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.UUID;
+
+public interface IBuilderDaemon extends Remote {
+
+    boolean isReusable() throws RemoteException;
+    boolean reserve() throws RemoteException;
+    void build(UUID uuid, boolean clean) throws RemoteException;
+    void shutdown() throws RemoteException;
+
+}
@@ -2,26 +2,56 @@ package manager.commands.offshoot.build;
 
 import org.radixware.kernel.common.check.RadixProblem;
 import javax.swing.*;
+import java.io.Serializable;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 import java.util.UUID;
 
 public interface IBuildingNotifier extends Remote {
 
     void error(UUID uuid, Throwable ex) throws RemoteException;
     void event(UUID uuid, RadixProblem.ESeverity severity, String defId, String name, ImageIcon icon, String message) throws RemoteException;
+    void icon(UUID uuid, int iconId, ImageIcon icon) throws RemoteException;
+    void events(UUID uuid, List<Event> events) throws RemoteException;
     void progress(UUID uuid, int percent) throws RemoteException;
     void description(UUID uuid, String text) throws RemoteException;
+    void skipped(UUID uuid, List<String> layers) throws RemoteException;
     void isPaused(UUID uuid) throws RemoteException;
+    void daemon(UUID uuid, IBuilderDaemon daemon) throws RemoteException;
     
     interface IBuildListener {
 
         void error(Throwable ex);
         default void event(RadixProblem.ESeverity severity, String defId, String name, ImageIcon icon, String message) {}
+        default void events(List<CompilerEvent> events) {
+            events.forEach(event -> event(event.getSeverity(), event.getDefId(), event.getName(), event.getIcon(), event.getMessage()));
+        }
         default void progress(int percent) {}
         default void description(String text) {}
+        default void skipped(List<String> layers) {}
         void isPaused();
+        default void daemon(IBuilderDaemon daemon) {}
         
     }
+
+    final class Event implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final RadixProblem.ESeverity severity;
+        final String defId;
+        final String name;
+        final int    iconId;
+        final String message;
+
+        Event(RadixProblem.ESeverity severity, String defId, String name, int iconId, String message) {
+            this.severity = severity;
+            this.defId    = defId;
+            this.name     = name;
+            this.iconId   = iconId;
+            this.message  = message;
+        }
+    }
     
 }
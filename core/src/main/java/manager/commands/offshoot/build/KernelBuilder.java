@@ -8,6 +8,8 @@ import java.nio.charset.StandardCharsets;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.StringJoiner;
 import java.util.UUID;
 import java.util.prefs.Preferences;
@@ -43,6 +45,7 @@ public class KernelBuilder {
         Integer port = Integer.valueOf(System.getProperty("port"));
         UUID    uuid = UUID.fromString(System.getProperty("uuid"));
         String  path = System.getProperty("path");
+        boolean incremental = Boolean.getBoolean("incremental");
 
         Registry reg = LocateRegistry.getRegistry(port);
         IBuildingNotifier notifier = (IBuildingNotifier) reg.lookup(BuildingNotifier.class.getCanonicalName());
@@ -67,13 +70,24 @@ public class KernelBuilder {
             property.setName("modules");
             File localDir = new File(path);
 
+            KernelFingerprint fingerprint = new KernelFingerprint(new File(localDir.getPath()+File.separator+"build-kernel.state"));
             StringJoiner kernels = new StringJoiner("\n");
+            List<Layer>  built   = new LinkedList<>();
+            List<String> skipped = new LinkedList<>();
             Branch branch = Branch.Factory.loadFromDir(localDir);
             for (Layer layer : branch.getLayers()) {
                 if (layer.getKernel().getDirectory().exists() && !layer.isReadOnly()) {
-                    kernels.add(layer.getDirectory().getName()+"/kernel/build.xml");
+                    if (incremental && fingerprint.isUpToDate(layer)) {
+                        skipped.add(layer.getDirectory().getName());
+                    } else {
+                        kernels.add(layer.getDirectory().getName()+"/kernel/build.xml");
+                        built.add(layer);
+                    }
                 }
             }
+            if (!skipped.isEmpty()) {
+                notifier.skipped(uuid, skipped);
+            }
             if (kernels.length() == 0) {
                 return;
             }
@@ -134,8 +148,10 @@ public class KernelBuilder {
                 ant.executeTarget(targetBuild.getName());
 
                 ant.fireBuildFinished(null);
+                fingerprint.update(built);
             } catch (BuildException e) {
                 ant.fireBuildFinished(e);
+                fingerprint.invalidate(built);
                 notifier.error(uuid, e);
             }
         } catch (IOException e) {
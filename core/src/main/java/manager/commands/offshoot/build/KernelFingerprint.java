@@ -0,0 +1,135 @@
+package manager.commands.offshoot.build;
+
+import codex.log.Logger;
+import org.radixware.kernel.common.repository.Layer;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+class KernelFingerprint {
+
+    private final static List<String> OUTPUT_DIRS = Arrays.asList("bin", "build", "dist");
+    private final static int          MODULE_DEPTH = 2;
+
+    private final File stateFile;
+    private final Properties state = new Properties();
+    private final Map<String, String> fingerprints = new HashMap<>();
+
+    KernelFingerprint(File stateFile) {
+        this.stateFile = stateFile;
+        if (stateFile.exists()) {
+            try (InputStream in = new FileInputStream(stateFile)) {
+                state.load(in);
+            } catch (IOException e) {
+                state.clear();
+            }
+        }
+    }
+
+    boolean isUpToDate(Layer layer) {
+        try {
+            return getFingerprint(layer).equals(state.getProperty(getKey(layer)));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    void update(Collection<Layer> layers) {
+        // Fingerprints are taken from the sources as they are after the build, whichever mode has started it
+        fingerprints.clear();
+        for (Layer layer : layers) {
+            try {
+                state.setProperty(getKey(layer), getFingerprint(layer));
+            } catch (IOException e) {
+                state.remove(getKey(layer));
+            }
+        }
+        save();
+    }
+
+    void invalidate(Collection<Layer> layers) {
+        layers.forEach(layer -> state.remove(getKey(layer)));
+        save();
+    }
+
+    private void save() {
+        try (OutputStream out = new FileOutputStream(stateFile)) {
+            state.store(out, "Kernel layers fingerprints");
+        } catch (IOException e) {
+            Logger.getLogger().warn("Unable to save kernel fingerprints ''{0}'': {1}", stateFile, e.getMessage());
+        }
+    }
+
+    static boolean isOutputDir(Path layerDir, Path dir) {
+        // Build output lies directly in a module directory (<layer>/<segment>/<module>/bin),
+        // deeper directories of the same name are sources
+        String name = dir.getFileName().toString();
+        return name.equals(".svn") || (
+                OUTPUT_DIRS.contains(name) &&
+                dir.startsWith(layerDir) &&
+                layerDir.relativize(dir).getNameCount() == MODULE_DEPTH + 1
+        );
+    }
+
+    private static String getKey(Layer layer) {
+        return layer.getDirectory().getName();
+    }
+
+    private String getFingerprint(Layer layer) throws IOException {
+        String fingerprint = fingerprints.get(layer.getURI());
+        if (fingerprint == null) {
+            MessageDigest digest = newDigest();
+            digest.update(layer.getURI().getBytes(StandardCharsets.UTF_8));
+            for (Layer baseLayer : layer.listBaseLayers()) {
+                digest.update(getFingerprint(baseLayer).getBytes(StandardCharsets.UTF_8));
+            }
+            File kernelDir = layer.getKernel().getDirectory();
+            if (kernelDir.exists()) {
+                digestSources(kernelDir.toPath(), digest);
+            }
+            fingerprint = toHex(digest.digest());
+            fingerprints.put(layer.getURI(), fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static void digestSources(Path kernelDir, MessageDigest digest) throws IOException {
+        TreeMap<String, BasicFileAttributes> files = new TreeMap<>();
+        Files.walkFileTree(kernelDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return isOutputDir(kernelDir.getParent(), dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.put(kernelDir.relativize(file).toString().replace(File.separatorChar, '/'), attrs);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        files.forEach((path, attrs) -> digest.update(
+                (path + ":" + attrs.size() + ":" + attrs.lastModifiedTime().toMillis() + "\n").getBytes(StandardCharsets.UTF_8)
+        ));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+}
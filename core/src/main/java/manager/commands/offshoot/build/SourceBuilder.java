@@ -9,6 +9,7 @@ import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -104,21 +105,16 @@ public class SourceBuilder {
         return modules.get();
     }
     
-    public static void main(String[] args12) throws Exception {
+    static void setupLocale() {
         Preferences prefs = Preferences.userRoot().node(Manager.class.getSimpleName());
         if (prefs.get("guiLang", null) != null) {
             Locale localeEnum = Locale.valueOf(prefs.get("guiLang", null));
             java.lang.System.setProperty("user.language", localeEnum.getLocale().getLanguage());
             java.lang.System.setProperty("user.country",  localeEnum.getLocale().getCountry());
         }
-        
-        Integer port  = Integer.valueOf(System.getProperty("port"));
-        UUID    uuid  = UUID.fromString(System.getProperty("uuid"));
-        String  path  = System.getProperty("path");
-        Boolean clean = "1".equals(System.getProperty("clean"));
+    }
 
-        Registry reg = LocateRegistry.getRegistry(port);
-        IBuildingNotifier notifier = (IBuildingNotifier) reg.lookup(BuildingNotifier.class.getCanonicalName());
+    static void setupErrorHandler(IBuildingNotifier notifier, UUID uuid) {
         Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> {
             try {
                 notifier.error(uuid, ex);
@@ -126,119 +122,140 @@ public class SourceBuilder {
                 e.printStackTrace();
             }
         });
+    }
+    
+    public static void main(String[] args12) throws Exception {
+        setupLocale();
+        
+        Integer port  = Integer.valueOf(System.getProperty("port"));
+        UUID    uuid  = UUID.fromString(System.getProperty("uuid"));
+        String  path  = System.getProperty("path");
+        Boolean clean = "1".equals(System.getProperty("clean"));
 
+        Registry reg = LocateRegistry.getRegistry(port);
+        IBuildingNotifier notifier = (IBuildingNotifier) reg.lookup(BuildingNotifier.class.getCanonicalName());
+        setupErrorHandler(notifier, uuid);
+
+        build(notifier, uuid, clean, () -> Branch.Factory.loadFromDir(new File(path)));
+    }
+
+    static void build(IBuildingNotifier notifier, UUID uuid, boolean clean, Callable<Branch> branchLoader) throws Exception {
         Map<String, ImageIcon> IMG_CACHE = new HashMap<>();
+        BuildEventChannel channel = new BuildEventChannel(notifier, uuid);
+        try {
+            final AtomicInteger totalModules = new AtomicInteger(0);
+            IBuildEnvironment env = new BuildEnvironment(
+                TARGET_ENV,
+                new BuildFlowLogger() {
+                    @Override
+                    public void problem(RadixProblem problem) {
+                        final Definition definition = problem.getSource().getDefinition();
+                        final RadixIcon  radixIcon  = definition != null ? definition.getIcon() : problem.getSource().getIcon();
+                        final String defId   = definition != null ? definition.getId().toString() : problem.getSource().getQualifiedName();
+                        final String defName = problem.getSource().getQualifiedName();
+                        final String imgUri  = definition != null ? radixIcon.getResourceUri() : radixIcon.getResourceUri();
+                        final String message = problem.getMessage();
 
-        final AtomicInteger totalModules = new AtomicInteger(0);
-        IBuildEnvironment env = new BuildEnvironment(
-            TARGET_ENV,
-            new BuildFlowLogger() {
-                @Override
-                public void problem(RadixProblem problem) {
-                    final Definition definition = problem.getSource().getDefinition();
-                    final RadixIcon  radixIcon  = definition != null ? definition.getIcon() : problem.getSource().getIcon();
-                    final String defId   = definition != null ? definition.getId().toString() : problem.getSource().getQualifiedName();
-                    final String defName = problem.getSource().getQualifiedName();
-                    final String imgUri  = definition != null ? radixIcon.getResourceUri() : radixIcon.getResourceUri();
-                    final String message = problem.getMessage();
-
-                    if (!IMG_CACHE.containsKey(imgUri)) {
+                        if (!IMG_CACHE.containsKey(imgUri)) {
+                            try {
+                                IMG_CACHE.put(
+                                        imgUri,
+                                        new ImageIcon(SvgImageLoader.loadSvg(
+                                                ClassLoader.getSystemClassLoader().getResource(imgUri),
+                                                radixIcon.getIcon().getIconWidth()
+                                        ))
+                                );
+                            } catch (IOException e) {
+                                //
+                            }
+                        }
+                        final ImageIcon icon = IMG_CACHE.get(imgUri);
                         try {
-                            IMG_CACHE.put(
-                                    imgUri,
-                                    new ImageIcon(SvgImageLoader.loadSvg(
-                                            ClassLoader.getSystemClassLoader().getResource(imgUri),
-                                            radixIcon.getIcon().getIconWidth()
-                                    ))
-                            );
-                        } catch (IOException e) {
-                            //
+                            channel.event(problem.getSeverity(), defId, defName, imgUri, icon, message);
+                        } catch (RemoteException e) {
+                            throw new RuntimeException(e.getMessage());
                         }
                     }
-                    final ImageIcon icon = IMG_CACHE.get(imgUri);
-                    try {
-                        notifier.event(uuid, problem.getSeverity(), defId, defName, icon, message);
-                    } catch (RemoteException e) {
-                        throw new RuntimeException(e.getMessage());
+                    @Override
+                    public Cancellable getCancellable() {
+                        return new Cancellable() {
+                            @Override
+                            public boolean cancel() {
+                                return false;
+                            }
+
+                            @Override
+                            public boolean wasCancelled() {
+                                try {
+                                    notifier.isPaused(uuid);
+                                } catch (RemoteException e) {
+                                    throw new RuntimeException(e.getMessage());
+                                }
+                                return false;
+                            }
+                        };
+                    }
+                },
+                new IProgressHandle() {
+                    private final Pattern MODULE_BUILD = Pattern.compile("^Build module: (.*): $");
+                    private final Set<String> builtModules = new HashSet<>();
+
+                    @Override
+                    public void setDisplayName(String name) {
+                        Matcher matcher = MODULE_BUILD.matcher(name);
+                        try {
+                            if (matcher.find() && !builtModules.contains(matcher.group(1))) {
+                                if (totalModules.get() == 0) {
+                                    notifier.description(uuid, matcher.group(1));
+                                } else {
+                                    builtModules.add(matcher.group(1));
+                                    int progress = 100 * builtModules.size() / totalModules.get();
+                                    notifier.description(uuid, matcher.group(1));
+                                    notifier.progress(uuid, progress);
+                                }
+                            } else {
+                                notifier.description(uuid, name);
+                            }
+                        } catch (RemoteException e) {
+                            throw new RuntimeException(e.getMessage());
+                        }
                     }
+
+                    @Override
+                    public void finish() {}
                 }
+            ) {
                 @Override
-                public Cancellable getCancellable() {
-                    return new Cancellable() {
-                        @Override
-                        public boolean cancel() {
-                            return false;
-                        }
-
+                public Logger getLogger() {
+                    return new Logger(BuildEnvironment.class.getName(), null) {
                         @Override
-                        public boolean wasCancelled() {
+                        public void log(Level level, String msg, Throwable thrown) {
                             try {
-                                notifier.isPaused(uuid);
+                                notifier.error(uuid, thrown);
                             } catch (RemoteException e) {
                                 throw new RuntimeException(e.getMessage());
                             }
-                            return false;
                         }
                     };
                 }
-            },
-            new IProgressHandle() {
-                private final Pattern MODULE_BUILD = Pattern.compile("^Build module: (.*): $");
-                private final Set<String> builtModules = new HashSet<>();
 
                 @Override
-                public void setDisplayName(String name) {
-                    Matcher matcher = MODULE_BUILD.matcher(name);
-                    try {
-                        if (matcher.find() && !builtModules.contains(matcher.group(1))) {
-                            if (totalModules.get() == 0) {
-                                notifier.description(uuid, matcher.group(1));
-                            } else {
-                                builtModules.add(matcher.group(1));
-                                int progress = 100 * builtModules.size() / totalModules.get();
-                                notifier.description(uuid, matcher.group(1));
-                                notifier.progress(uuid, progress);
-                            }
-                        } else {
-                            notifier.description(uuid, name);
-                        }
-                    } catch (RemoteException e) {
-                        throw new RuntimeException(e.getMessage());
-                    }
+                public BuildActionExecutor.EBuildActionType getActionType() {
+                    return clean ? BuildActionExecutor.EBuildActionType.CLEAN_AND_BUILD : BuildActionExecutor.EBuildActionType.BUILD;
                 }
-
-                @Override
-                public void finish() {}
-            }
-        ) {
-            @Override
-            public Logger getLogger() {
-                return new Logger(BuildEnvironment.class.getName(), null) {
-                    @Override
-                    public void log(Level level, String msg, Throwable thrown) {
-                        try {
-                            notifier.error(uuid, thrown);
-                        } catch (RemoteException e) {
-                            throw new RuntimeException(e.getMessage());
-                        }
-                    }
-                };
-            }
-
-            @Override
-            public BuildActionExecutor.EBuildActionType getActionType() {
-                return clean ? BuildActionExecutor.EBuildActionType.CLEAN_AND_BUILD : BuildActionExecutor.EBuildActionType.BUILD;
+            };
+            Branch branch = branchLoader.call();
+            env.getBuildDisplayer().getProgressHandleFactory().createHandle("Load definitions...");
+            try {
+                totalModules.set(enumerateModules(env, branch));
+            } catch (Exception e) {
+                //
             }
-        };
-        Branch branch = Branch.Factory.loadFromDir(new File(path));
-        env.getBuildDisplayer().getProgressHandleFactory().createHandle("Load definitions...");
-        try {
-            totalModules.set(enumerateModules(env, branch));
-        } catch (Exception e) {
-            //
+            BuildActionExecutor executor = new BuildActionExecutor(env);
+            executor.execute(branch);
+        } finally {
+            channel.close();
         }
-        BuildActionExecutor executor = new BuildActionExecutor(env);
-        executor.execute(branch);
     }
     
 }
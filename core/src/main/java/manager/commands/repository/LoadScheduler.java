@@ -0,0 +1,173 @@
+package manager.commands.repository;
+
+import codex.log.Logger;
+import codex.service.ServiceRegistry;
+import codex.task.AbstractTask;
+import codex.task.ITaskExecutorService;
+import codex.task.TaskManager;
+import codex.utils.Language;
+import manager.Manager;
+import manager.nodes.Repository;
+import manager.svn.SVN;
+import org.tmatesoft.svn.core.SVNException;
+import javax.swing.*;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.Preferences;
+import java.util.stream.Collectors;
+
+class LoadScheduler {
+
+    private final static ITaskExecutorService TES = ((ITaskExecutorService) ServiceRegistry.getInstance().lookupService(TaskManager.TaskExecutorService.class));
+    private final static Preferences STATE = Preferences.userRoot().node(Manager.class.getSimpleName()).node("repositoryState");
+    private final static int PARALLELISM = Math.max(1, Integer.getInteger("manager.repository.parallelism", 4));
+    private final static long PROBE_DELAY     = TimeUnit.SECONDS.toMillis(Long.getLong("manager.repository.probeDelay", 30));
+    private final static long PROBE_MAX_DELAY = TimeUnit.MINUTES.toMillis(10);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM, runnable -> {
+        Thread thread = new Thread(runnable, "Repository loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Repository prober");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private LoadAllTask current;
+
+    static boolean isKnownOnline(Repository repository) {
+        return STATE.getBoolean(getStateKey(repository), true);
+    }
+
+    static void setKnownOnline(Repository repository, boolean online) {
+        STATE.putBoolean(getStateKey(repository), online);
+    }
+
+    private static String getStateKey(Repository repository) {
+        return Integer.toHexString(repository.getRepoUrl().hashCode());
+    }
+
+    synchronized void schedule(Repository repository, LoadWC command) {
+        if (current == null || !current.offer(repository, command)) {
+            current = new LoadAllTask();
+            current.offer(repository, command);
+            TES.enqueueTask(current);
+        }
+    }
+
+    private void load(Repository repository, LoadWC command, LoadAllTask task) {
+        boolean result;
+        if (isKnownOnline(repository)) {
+            result = command.loadRepository(repository, false, phase -> task.setPhase(repository, phase));
+        } else {
+            task.setPhase(repository, Language.get(Repository.class, "load@branches"));
+            repository.setOffline(true);
+            repository.loadBranches();
+            Logger.getLogger().warn("Repository ''{0}'' loaded in OFFLINE mode (was offline last time)", repository);
+            prober.submit(() -> probe(repository, PROBE_DELAY));
+            result = true;
+        }
+        SwingUtilities.invokeLater(() -> command.switchLock(repository, result));
+    }
+
+    private void probe(Repository repository, long delay) {
+        if (!repository.isOffline()) {
+            // Repository is switched to online mode meanwhile
+            return;
+        }
+        try {
+            if (SVN.checkConnection(repository.getRepoUrl(), repository.getAuthManager())) {
+                if (!repository.isLocked(false)) {
+                    return;
+                }
+                setKnownOnline(repository, true);
+                repository.setOffline(false);
+                repository.unloadBranches();
+                repository.loadBranches();
+                Logger.getLogger().info("Repository ''{0}'' is available again and reloaded in ONLINE mode", repository);
+                return;
+            }
+        } catch (SVNException | IOException e) {
+            // Still offline
+        }
+        // Repository is probed again with growing interval until it answers
+        prober.schedule(() -> probe(repository, Math.min(delay * 2, PROBE_MAX_DELAY)), delay, TimeUnit.MILLISECONDS);
+    }
+
+
+    private class LoadAllTask extends AbstractTask<Void> {
+
+        private final Map<Repository, String> active = new LinkedHashMap<>();
+        private int     total  = 0;
+        private int     done   = 0;
+        private boolean closed = false;
+
+        LoadAllTask() {
+            super(Language.get(Repository.class, "load@title"));
+        }
+
+        synchronized boolean offer(Repository repository, LoadWC command) {
+            if (closed) {
+                return false;
+            }
+            total++;
+            active.put(repository, Language.get(Repository.class, "load@wait"));
+            executor.submit(() -> {
+                try {
+                    load(repository, command, this);
+                } catch (Exception e) {
+                    Logger.getLogger().warn("Repository ''{0}'' not loaded. Reason: {1}", repository, e.getMessage());
+                } finally {
+                    complete(repository);
+                }
+            });
+            return true;
+        }
+
+        synchronized void setPhase(Repository repository, String phase) {
+            active.put(repository, phase);
+            showProgress();
+        }
+
+        private synchronized void complete(Repository repository) {
+            active.remove(repository);
+            done++;
+            showProgress();
+            notifyAll();
+        }
+
+        private void showProgress() {
+            setProgress(
+                    total == 0 ? 0 : done * 100 / total,
+                    MessageFormat.format(
+                            Language.get(Repository.class, "load@progress"),
+                            done, total,
+                            active.entrySet().stream()
+                                    .map(entry -> entry.getKey().getPID() + ": " + entry.getValue())
+                                    .collect(Collectors.joining(", "))
+                    )
+            );
+        }
+
+        @Override
+        public synchronized Void execute() throws Exception {
+            while (done < total) {
+                wait(TimeUnit.SECONDS.toMillis(1));
+            }
+            closed = true;
+            return null;
+        }
+
+        @Override
+        public void finished(Void result) {}
+
+    }
+
+}
@@ -8,8 +8,6 @@ import codex.explorer.tree.INode;
 import codex.log.Logger;
 import codex.model.Catalog;
 import codex.task.AbstractTask;
-import codex.task.ITask;
-import codex.task.ITaskListener;
 import codex.type.IComplexType;
 import codex.utils.ImageUtils;
 import codex.utils.Language;
@@ -24,6 +22,7 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.function.Consumer;
 import static manager.nodes.Repository.*;
 
 public class LoadWC extends EntityCommand<Repository> {
@@ -31,6 +30,8 @@ public class LoadWC extends EntityCommand<Repository> {
     private final static ImageIcon ENABLED  = ImageUtils.getByPath("/images/switch_on.png");
     private final static ImageIcon DISABLED = ImageUtils.getByPath("/images/switch_off.png");
 
+    private final static LoadScheduler SCHEDULER = new LoadScheduler();
+
     public LoadWC() {
         super(
                 "load", 
@@ -65,7 +66,11 @@ public class LoadWC extends EntityCommand<Repository> {
     
     private void load(Repository repository) {
         repository.setLocked(true);
-        executeTask(repository, new LoadTask(repository), !getContext().isEmpty());
+        if (getContext().isEmpty()) {
+            SCHEDULER.schedule(repository, this);
+        } else {
+            executeTask(repository, new LoadTask(repository), true);
+        }
     }
     
     private void unload(Repository repository) {
@@ -74,7 +79,7 @@ public class LoadWC extends EntityCommand<Repository> {
         switchLock(repository, false);
     }
     
-    private void switchLock(Repository repository, boolean locked) {
+    void switchLock(Repository repository, boolean locked) {
         repository.setMode((locked ? INode.MODE_ENABLED : INode.MODE_NONE) + INode.MODE_SELECTABLE);
         repository.setLocked(locked);
         try {
@@ -84,6 +89,69 @@ public class LoadWC extends EntityCommand<Repository> {
         }
     }
     
+    boolean loadRepository(Repository repository, boolean interactive, Consumer<String> progress) {
+        String rootUrl = repository.getRepoUrl();
+        ISVNAuthenticationManager authMgr = repository.getAuthManager();
+        try {
+            progress.accept(Language.get(Repository.class, "load@connect"));
+            if (SVN.checkConnection(rootUrl, authMgr)) {
+                try {
+                    progress.accept(Language.get(Repository.class, "load@verify"));
+                    String repositorySystemName = repository.getSystemName();
+                    if (repositorySystemName != null) {
+                        Logger.getLogger().debug("Remote repository ''{0}'' verified successfully [name = ''{1}'']", repository, repositorySystemName);
+                        progress.accept(Language.get(Repository.class, "load@branches"));
+                        repository.setOffline(false);
+                        repository.loadBranches();
+                        LoadScheduler.setKnownOnline(repository, true);
+                        Logger.getLogger().info("Repository ''{0}'' loaded in ONLINE mode", repository);
+                        return true;
+                    }
+                } catch (SVNException e) {
+                    if (e.getErrorMessage().getErrorCode() == SVNErrorCode.FS_NOT_FOUND) {
+                        MessageBox.show(MessageType.ERROR,
+                            MessageFormat.format(
+                                    Language.get(Repository.class, "error@invalid"),
+                                    repository.getRepoUrl()
+                            )
+                        );
+                        return false;
+                    } else {
+                        throw e;
+                    }
+                }
+            }
+        } catch (SVNException | IOException e) {
+            if (
+                    e instanceof IOException ||
+                    Arrays.asList(SVNErrorCode.RA_SVN_IO_ERROR, SVNErrorCode.RA_SVN_MALFORMED_DATA).contains(
+                            ((SVNException) e).getErrorMessage().getErrorCode()
+                    )
+            ) {
+                progress.accept(Language.get(Repository.class, "load@branches"));
+                repository.setOffline(true);
+                repository.loadBranches();
+                LoadScheduler.setKnownOnline(repository, false);
+                Logger.getLogger().warn("Repository ''{0}'' loaded in OFFLINE mode", repository);
+                return true;
+            } else {
+                if (!interactive) {
+                    Logger.getLogger().warn("Repository ''{0}'' not loaded. Reason: {1}", repository, e.getMessage());
+                } else {
+                    MessageBox.show(MessageType.ERROR,
+                            MessageFormat.format(
+                                    Language.get(Repository.class, "error@message"),
+                                    repository.getPID(),
+                                    e.getMessage()
+                            )
+                    );
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+    
     private class LoadTask extends AbstractTask<Boolean> {
         
         final Repository repository;
@@ -98,58 +166,7 @@ public class LoadWC extends EntityCommand<Repository> {
 
         @Override
         public Boolean execute() throws Exception {
-            String rootUrl = repository.getRepoUrl();
-            ISVNAuthenticationManager authMgr = repository.getAuthManager();
-            try {
-                if (SVN.checkConnection(rootUrl, authMgr)) {
-                    try {
-                        String repositorySystemName = repository.getSystemName();
-                        if (repositorySystemName != null) {
-                            Logger.getLogger().debug("Remote repository ''{0}'' verified successfully [name = ''{1}'']", repository, repositorySystemName);
-                            repository.loadBranches();
-                            Logger.getLogger().info("Repository ''{0}'' loaded in ONLINE mode", repository);
-                            return true;
-                        }
-                    } catch (SVNException e) {
-                        if (e.getErrorMessage().getErrorCode() == SVNErrorCode.FS_NOT_FOUND) {
-                            MessageBox.show(MessageType.ERROR,
-                                MessageFormat.format(
-                                        Language.get(Repository.class, "error@invalid"),
-                                        repository.getRepoUrl()
-                                )
-                            );
-                            return false;
-                        } else {
-                            throw e;
-                        }
-                    }
-                }
-            } catch (SVNException | IOException e) {
-                if (
-                        e instanceof IOException ||
-                        Arrays.asList(SVNErrorCode.RA_SVN_IO_ERROR, SVNErrorCode.RA_SVN_MALFORMED_DATA).contains(
-                                ((SVNException) e).getErrorMessage().getErrorCode()
-                        )
-                ) {
-                    repository.loadBranches();
-                    Logger.getLogger().warn("Repository ''{0}'' loaded in OFFLINE mode", repository);
-                    return true;
-                } else {
-                    if (getContext().isEmpty()) {
-                        Logger.getLogger().warn("Repository ''{0}'' not loaded. Reason: {1}", repository, e.getMessage());
-                    } else {
-                        MessageBox.show(MessageType.ERROR,
-                                MessageFormat.format(
-                                        Language.get(Repository.class, "error@message"),
-                                        repository.getPID(),
-                                        e.getMessage()
-                                )
-                        );
-                    }
-                    return false;
-                }
-            }
-            return false;
+            return loadRepository(repository, true, phase -> setProgress(0, phase));
         }
 
         @Override
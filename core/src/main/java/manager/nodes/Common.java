@@ -15,7 +15,9 @@ import java.util.prefs.Preferences;
 import javax.swing.SwingUtilities;
 import manager.Manager;
 import manager.commands.common.DiskUsageReport;
+import manager.svn.SVN;
 import manager.type.Locale;
+import manager.utils.DirectoryEraser;
 
 public final class Common extends Catalog {
     
@@ -23,6 +25,9 @@ public final class Common extends Catalog {
     
     private final static String PROP_WORK_DIR  = "workDir";
     private final static String PROP_GUI_LANG  = "guiLang";
+    private final static String CACHE_DIR      = ".cache";
+    private final static String TRASH_DIR      = "trash";
+    private final static String STORE_DIR      = "layers";
 
     static {
         CommandRegistry.getInstance().registerCommand(DiskUsageReport.class);
@@ -44,6 +49,7 @@ public final class Common extends Catalog {
                             childrenList().forEach((child) -> {
                                 setChildMode(child, getWorkDir() != null);
                             });
+                            setupMetadataCache();
                             break;
                         
                         case PROP_GUI_LANG:
@@ -56,12 +62,39 @@ public final class Common extends Catalog {
                 });          
             }
         });
+        setupMetadataCache();
+        if (getTrashDir() != null) {
+            DirectoryEraser.purgeTrash(getTrashDir());
+        }
+    }
+
+    private void setupMetadataCache() {
+        Path cacheDir = getCacheDir();
+        SVN.setMetadataCache(
+                cacheDir == null ? null : cacheDir.resolve("svn"),
+                RepositoryBranch::isImmutablePath
+        );
     }
     
     public final Path getWorkDir() {
         return (Path) model.getValue(PROP_WORK_DIR);
     }
     
+    public final Path getCacheDir() {
+        Path workDir = getWorkDir();
+        return workDir == null ? null : workDir.resolve(CACHE_DIR);
+    }
+    
+    public final Path getTrashDir() {
+        Path cacheDir = getCacheDir();
+        return cacheDir == null ? null : cacheDir.resolve(TRASH_DIR);
+    }
+    
+    public final Path getStoreDir() {
+        Path cacheDir = getCacheDir();
+        return cacheDir == null ? null : cacheDir.resolve(STORE_DIR);
+    }
+    
     public final Locale getGuiLang() {
         return (Locale) model.getValue(PROP_GUI_LANG);
     }
@@ -0,0 +1,115 @@
+package manager.nodes;
+
+import codex.database.IDatabaseAccessService;
+import codex.log.Logger;
+import manager.commands.database.CheckDatabase;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+final class ConnectionPool {
+
+    private final static long   VALIDATE_AFTER = TimeUnit.SECONDS.toMillis(Long.getLong("manager.db.validateAfter", 30));
+    private final static long   IDLE_TIMEOUT   = TimeUnit.MINUTES.toMillis(Long.getLong("manager.db.idleTimeout", 10));
+    private final static long   EVICT_PERIOD   = TimeUnit.MINUTES.toMillis(1);
+    private final static String VALIDATE_QUERY = "SELECT 1 FROM DUAL";
+
+    @FunctionalInterface
+    interface IConnector {
+        Integer connect() throws SQLException;
+    }
+
+    private static final class Key {
+        final String url, user, pass;
+
+        Key(String url, String user, String pass) {
+            this.url  = url;
+            this.user = user;
+            this.pass = pass;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return url.equals(other.url) && user.equals(other.user) && pass.equals(other.pass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, user, pass);
+        }
+    }
+
+    private static final class Connection {
+        final Integer id;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Connection(Integer id) {
+            this.id = id;
+        }
+    }
+
+    private final IDatabaseAccessService DAS;
+    private final Map<Key, Connection> connections = new HashMap<>();
+
+    ConnectionPool(IDatabaseAccessService DAS) {
+        this.DAS = DAS;
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Database connection evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evict, EVICT_PERIOD, EVICT_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    Integer borrow(String url, String user, String pass, IConnector connector) throws SQLException {
+        Key key = new Key(url, user, pass);
+        Connection connection;
+        synchronized (connections) {
+            connection = connections.get(key);
+        }
+        if (connection != null && (System.currentTimeMillis() - connection.lastUsed < VALIDATE_AFTER || isValid(url, connection))) {
+            connection.lastUsed = System.currentTimeMillis();
+            return connection.id;
+        }
+        Integer id = connector.connect();
+        synchronized (connections) {
+            if (id == null) {
+                connections.remove(key);
+            } else {
+                connections.put(key, new Connection(id));
+            }
+        }
+        return id;
+    }
+
+    private boolean isValid(String url, Connection connection) {
+        // Unreachable host is detected by the short port probe instead of waiting for the driver timeout
+        if (!CheckDatabase.checkUrlPort(url)) {
+            return false;
+        }
+        try (ResultSet rs = DAS.select(connection.id, VALIDATE_QUERY)) {
+            return rs.next();
+        } catch (SQLException e) {
+            Logger.getLogger().debug("Database connection #{0} is not valid: {1}", connection.id, e.getMessage());
+            return false;
+        }
+    }
+
+    private void evict() {
+        // Connection is owned by the access service, so the pool only forgets it and next borrow registers it again
+        long now = System.currentTimeMillis();
+        synchronized (connections) {
+            connections.values().removeIf(connection -> now - connection.lastUsed > IDLE_TIMEOUT);
+        }
+    }
+
+}
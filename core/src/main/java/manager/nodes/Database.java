@@ -29,7 +29,8 @@ public class Database extends Entity {
     private final static String PROP_BASE_PASS = "dbPass";
     private final static String PROP_USER_NOTE = "userNote";
    
-    private static final IDatabaseAccessService OAS = OracleAccessService.getInstance();
+    private static final IDatabaseAccessService OAS  = OracleAccessService.getInstance();
+    private static final ConnectionPool         POOL = new ConnectionPool(OAS);
     
     static {
         ServiceRegistry.getInstance().registerService(OAS);
@@ -42,17 +43,20 @@ public class Database extends Entity {
         String pass = getDatabasePassword(true);
 
         if (IComplexType.notNull(url, user, pass)) {
-            if (!CheckDatabase.checkUrlPort(url)) {
-                if (showError) {
-                    MessageBox.show(MessageType.WARNING, MessageFormat.format(
-                            Language.get(Database.class, "error@unavailable"),
-                            getPID(), url.substring(0, url.indexOf("/"))
-                    ));
-                }
-                return null;
-            }
             try {
-                return Database.OAS.registerConnection("jdbc:oracle:thin:@//"+url, user, pass);
+                // Port probe and registration are only needed when there is no valid pooled connection
+                return POOL.borrow(url, user, pass, () -> {
+                    if (!CheckDatabase.checkUrlPort(url)) {
+                        if (showError) {
+                            MessageBox.show(MessageType.WARNING, MessageFormat.format(
+                                    Language.get(Database.class, "error@unavailable"),
+                                    getPID(), url.substring(0, url.indexOf("/"))
+                            ));
+                        }
+                        return null;
+                    }
+                    return Database.OAS.registerConnection("jdbc:oracle:thin:@//"+url, user, pass);
+                });
             } catch (SQLException e) {
                 if (showError) {
                     MessageBox.show(MessageType.ERROR, e.getMessage());
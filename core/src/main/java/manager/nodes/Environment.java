@@ -23,12 +23,14 @@ import java.sql.SQLException;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.swing.*;
 import manager.commands.environment.RunAll;
 import manager.commands.environment.RunExplorer;
 import manager.commands.environment.RunServer;
+import manager.commands.environment.VerifyCache;
 import manager.type.SourceType;
 
 public class Environment extends Entity implements INodeListener {
@@ -37,10 +39,13 @@ public class Environment extends Entity implements INodeListener {
     private final static ImageIcon CHECKED   = ImageUtils.resize(ImageUtils.getByPath("/images/update.png"), 20, 20);
     private final static ImageIcon UNCHECKED = ImageUtils.resize(ImageUtils.combine(CHECKED, UNKNOWN), 20, 20);
 
+    private final static long VERSION_TTL = TimeUnit.SECONDS.toMillis(Long.getLong("manager.db.versionTtl", 30));
+
     static {
         CommandRegistry.getInstance().registerCommand(RunAll.class);
         CommandRegistry.getInstance().registerCommand(RunServer.class);
         CommandRegistry.getInstance().registerCommand(RunExplorer.class);
+        CommandRegistry.getInstance().registerCommand(VerifyCache.class);
     }
 
     // General properties
@@ -78,11 +83,20 @@ public class Environment extends Entity implements INodeListener {
         Database database = getDataBase(true);
         String   layerUri = getLayerUri(true);
         if (IComplexType.notNull(database, layerUri) && ServiceRegistry.getInstance().isServiceRegistered(OracleAccessService.class)) {
+            String key = String.join("|", database.getDatabaseUrl(true), database.getDatabaseUser(true), layerUri);
+            LayerVersion cached = layerVersion;
+            if (cached != null && cached.key.equals(key) && System.currentTimeMillis() - cached.time < VERSION_TTL) {
+                return cached.version;
+            }
             IDatabaseAccessService DAS = (IDatabaseAccessService) ServiceRegistry.getInstance().lookupService(OracleAccessService.class);
-            try (ResultSet rs = DAS.select(database.getConnectionID(false), "SELECT VERSION FROM RDX_DDSVERSION WHERE LAYERURI = ?", layerUri)) {
-                if (rs.next()) {
-                    return rs.getString(1);
-                }
+            Integer connectionID = database.getConnectionID(false);
+            if (connectionID == null) {
+                return null;
+            }
+            try (ResultSet rs = DAS.select(connectionID, "SELECT VERSION FROM RDX_DDSVERSION WHERE LAYERURI = ?", layerUri)) {
+                String version = rs.next() ? rs.getString(1) : null;
+                layerVersion = new LayerVersion(key, version);
+                return version;
             } catch (SQLException e) {
                 Logger.getLogger().warn("Database query failed: {0}", e.getMessage());
             }
@@ -90,6 +104,8 @@ public class Environment extends Entity implements INodeListener {
         return null;
     };
 
+    private volatile LayerVersion layerVersion;
+
     private final RowSupplier instanceSupplier = new RowSupplier(
             () -> getDataBase(true).getConnectionID(false),
             "SELECT ID, TITLE FROM RDX_INSTANCE ORDER BY ID"
@@ -116,7 +132,7 @@ public class Environment extends Entity implements INodeListener {
         model.addUserProp(PROP_LAYER_URI,    new Str(null),             true,  Access.Select);
         model.addUserProp(PROP_DATABASE,     new EntityRef<>(Database.class),   false, null);
         model.addDynamicProp(PROP_VERSION,   new Str(null), Access.Select, () -> {
-            new Thread(() -> setVersion(getLayerVersion())).start();
+            PropertyEvaluator.request(this, PROP_VERSION, this::getLayerVersion, this::getVersion, this::setVersion);
             return getVersion();
         });
         model.addUserProp(PROP_INSTANCE_ID,  new ArrStr().setMask(instanceSelector), false, Access.Select);
@@ -242,6 +258,7 @@ public class Environment extends Entity implements INodeListener {
         model.addChangeListener((name, oldValue, newValue) -> {
             switch (name) {
                 case PROP_DATABASE:
+                    invalidateLayerVersion();
                     layerSelector.activate();
                     instanceSelector.activate();
 
@@ -253,6 +270,7 @@ public class Environment extends Entity implements INodeListener {
                     break;
                     
                 case PROP_LAYER_URI:
+                    invalidateLayerVersion();
                     model.updateDynamicProps(PROP_VERSION);
                     break;
                     
@@ -471,6 +489,11 @@ public class Environment extends Entity implements INodeListener {
         model.setValue(PROP_AUTO_RELEASE, value);
     }
     
+    public void invalidateLayerVersion() {
+        layerVersion = null;
+        PropertyEvaluator.invalidate(this, PROP_VERSION);
+    }
+
     public String getLayerVersion() {
         try {
             return versionSupplier.get();
@@ -509,6 +532,17 @@ public class Environment extends Entity implements INodeListener {
         }
     }
     
+    private static final class LayerVersion {
+        final String key;
+        final String version;
+        final long   time = System.currentTimeMillis();
+
+        LayerVersion(String key, String version) {
+            this.key     = key;
+            this.version = version;
+        }
+    }
+    
     private class SyncRelease extends EditorCommand<EntityRef<Release>, Release> implements IModelListener {
 
         SyncRelease() {
@@ -561,6 +595,7 @@ public class Environment extends Entity implements INodeListener {
 
         @Override
         public void execute(PropertyHolder<EntityRef<Release>, Release> context) {
+            Environment.this.invalidateLayerVersion();
             Environment.this.setAutoRelease(!getAutoRelease(true));
             if (getID() != null) {
                 if (model.getChanges().equals(Collections.singletonList(PROP_AUTO_RELEASE))) {
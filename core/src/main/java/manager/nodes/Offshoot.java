@@ -18,10 +18,8 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import manager.commands.offshoot.*;
-import manager.svn.SVN;
 import manager.type.BuildStatus;
 import manager.type.WCStatus;
-import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
 import org.tmatesoft.svn.core.wc.*;
 import javax.swing.*;
 
@@ -44,6 +42,9 @@ public class Offshoot extends BinarySource {
         CommandRegistry.getInstance().registerCommand(DebugProfile.class);
     }
 
+    private volatile WCStatusService.Info localInfo, remoteInfo;
+    private volatile Integer appliedMode;
+
     public Offshoot(EntityRef owner, String title) {
         super(owner, ICON, title);
         
@@ -80,7 +81,11 @@ public class Offshoot extends BinarySource {
     
     public final WCStatus getWCStatus() {
         WCStatus wcStatus = (WCStatus) model.getValue(PROP_WC_STATUS);
-        SwingUtilities.invokeLater(() -> setMode(wcStatus.equals(WCStatus.Absent) ? 0 : INode.MODE_ENABLED));
+        int mode = wcStatus.equals(WCStatus.Absent) ? 0 : INode.MODE_ENABLED;
+        if (appliedMode == null || appliedMode != mode) {
+            appliedMode = mode;
+            SwingUtilities.invokeLater(() -> setMode(mode));
+        }
         return wcStatus;
     }
     
@@ -128,65 +133,50 @@ public class Offshoot extends BinarySource {
     }
     
     public final WCStatus getWorkingCopyStatus() {
-        String   wcPath = getLocalPath();
-        WCStatus status;
-
-        final File localDir = new File(wcPath);
-        if (!localDir.exists()) {
-            status = WCStatus.Absent;
-        } else if (!SVNWCUtil.isVersionedDirectory(localDir)) {
-            status = WCStatus.Invalid;
-        } else {
-            ISVNAuthenticationManager authMgr = getRepository().getAuthManager();
-            SVNInfo info = SVN.info(wcPath, false, authMgr);
-            if (
-                    info == null || 
-                    info.getCommittedDate() == null || 
-                    info.getCommittedRevision() == null ||
-                    info.getCommittedRevision() == SVNRevision.UNDEFINED
-            ) {
-                status = WCStatus.Interrupted;
-            } else {
-                status = WCStatus.Succesfull;
-
-//                final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
-//                try {
-//                    System.out.println("Check "+wcPath);
-//                    clientMgr.getStatusClient().doStatus(new File(wcPath), SVNRevision.HEAD, SVNDepth.INFINITY, false, false, false, false, new ISVNStatusHandler() {
-//                        @Override
-//                        public void handleStatus(SVNStatus svnStatus) throws SVNException {
-//                            if (svnStatus.isConflicted()) {
-//                                System.out.println("path=" + svnStatus.getFile() + ", conflict=" + svnStatus.isConflicted());
-//                                System.out.println("node="+svnStatus.getNodeStatus()+", content="+svnStatus.getContentsStatus());
-//                                System.out.println("conflict="+svnStatus.getTreeConflict());
-//                            }
-//                        }
-//                    }, null);
-//                } catch (SVNException e) {
-//                    Logger.getLogger().warn("SVN operation ''status'' error: {0}", e.getErrorMessage());
-//                }
-//                if (SVN.status(wcPath, false, authMgr).isConflicted()) {
-//                    status = WCStatus.Erroneous;
-//                } else {
-//                    status = WCStatus.Succesfull;
-//                }
-            }
-        }
-        return status;
+        return getWorkingCopyInfo(false).status;
     }
     
     public final SVNRevision getWorkingCopyRevision(boolean remote) {
-        String wcPath = remote ? getRemotePath(): getLocalPath();
-        ISVNAuthenticationManager authMgr = getRepository().getAuthManager();
-        SVNInfo info = SVN.info(wcPath, remote, authMgr);
-        return info == null ? SVNRevision.UNDEFINED : info.getCommittedRevision();
+        return getWorkingCopyInfo(remote).revision;
     }
     
     public final Date getWorkingCopyRevisionDate(boolean remote) {
-        String wcPath = remote ? getRemotePath() : getLocalPath();
-        ISVNAuthenticationManager authMgr = getRepository().getAuthManager();
-        SVNInfo info = SVN.info(wcPath, remote, authMgr);
-        return info == null ? null : info.getCommittedDate();
+        return getWorkingCopyInfo(remote).date;
+    }
+
+    public final void invalidateWCStatus() {
+        localInfo  = null;
+        remoteInfo = null;
+    }
+
+    public final void refreshWCStatus(Runnable onRefresh) {
+        remoteInfo = null;
+        WCStatusService.refresh(this, onRefresh);
+    }
+
+    final void setWorkingCopyInfo(WCStatusService.Info info) {
+        localInfo = info;
+    }
+
+    private WCStatusService.Info getWorkingCopyInfo(boolean remote) {
+        if (remote) {
+            WCStatusService.Info info = remoteInfo;
+            if (info == null || info.isExpired()) {
+                remoteInfo = info = WCStatusService.readRemote(this);
+            }
+            return info;
+        } else {
+            WCStatusService.Info info = localInfo;
+            if (info == null || info.isModified(this)) {
+                if (SwingUtilities.isEventDispatchThread()) {
+                    // Rendering does not wait for SVN, the status is applied once evaluated
+                    WCStatusService.request(this, info != null);
+                    return info == null ? WCStatusService.PENDING : info;
+                }
+                localInfo = info = WCStatusService.readLocal(this);
+            }
+            return info;
+        }
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package manager.nodes;
+
+import codex.log.Logger;
+import codex.model.Entity;
+import javax.swing.*;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+final class PropertyEvaluator {
+
+    private final static int  THREADS     = Math.max(1, Integer.getInteger("manager.evaluator.threads", 2));
+    private final static long TTL         = TimeUnit.SECONDS.toMillis(Long.getLong("manager.evaluator.ttl", 10));
+    private final static int  MAX_RESULTS = 512;
+
+    private final static ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "Property evaluator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final static Map<Key, Job<?>> JOBS    = new HashMap<>();
+    private final static Map<Key, Long>   RESULTS = new HashMap<>();
+    private final static List<Runnable>   PENDING = new LinkedList<>();
+    private final static ReferenceQueue<Entity> COLLECTED = new ReferenceQueue<>();
+
+    private static final class Key extends WeakReference<Entity> {
+        final String propName;
+        final int    hash;
+
+        // Evaluation results do not keep removed entities in memory
+        Key(Entity entity, String propName) {
+            super(entity, COLLECTED);
+            this.propName = propName;
+            this.hash     = 31 * System.identityHashCode(entity) + propName.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            Entity entity = get();
+            return entity != null && obj instanceof Key && ((Key) obj).get() == entity && ((Key) obj).propName.equals(propName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Job<T> {
+        final Supplier<T> supplier;
+        final Supplier<T> fallback;
+        final List<Consumer<T>> consumers = new LinkedList<>();
+        boolean rerun = false;
+
+        Job(Supplier<T> supplier, Supplier<T> fallback) {
+            this.supplier = supplier;
+            this.fallback = fallback;
+        }
+    }
+
+    private PropertyEvaluator() {}
+
+    static <T> void request(Entity entity, String propName, Supplier<T> supplier, Consumer<T> consumer) {
+        request(entity, propName, supplier, () -> null, consumer);
+    }
+
+    static <T> void request(Entity entity, String propName, Supplier<T> supplier, Supplier<T> fallback, Consumer<T> consumer) {
+        submit(new Key(entity, propName), supplier, fallback, consumer, false);
+    }
+
+    static <T> void refresh(Entity entity, String propName, Supplier<T> supplier, Consumer<T> consumer) {
+        submit(new Key(entity, propName), supplier, () -> null, consumer, true);
+    }
+
+    static void invalidate(Entity entity, String propName) {
+        Key key = new Key(entity, propName);
+        synchronized (JOBS) {
+            RESULTS.remove(key);
+            Job<?> job = JOBS.get(key);
+            if (job != null) {
+                job.rerun = true;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void submit(Key key, Supplier<T> supplier, Supplier<T> fallback, Consumer<T> consumer, boolean force) {
+        synchronized (JOBS) {
+            Reference<? extends Entity> collected;
+            while ((collected = COLLECTED.poll()) != null) {
+                RESULTS.remove(collected);
+            }
+            Job<T> job = (Job<T>) JOBS.get(key);
+            if (job != null) {
+                // Value is being evaluated already, forced request only has to see a result started after it
+                if (force) {
+                    job.rerun = true;
+                    job.consumers.add(consumer);
+                }
+                return;
+            }
+            Long evaluated = RESULTS.get(key);
+            if (!force && evaluated != null && System.currentTimeMillis() - evaluated < TTL) {
+                return;
+            }
+            job = new Job<>(supplier, fallback);
+            job.consumers.add(consumer);
+            JOBS.put(key, job);
+            schedule(key, job);
+        }
+    }
+
+    private static <T> void schedule(Key key, Job<T> job) {
+        EXECUTOR.submit(() -> {
+            T value;
+            try {
+                value = job.supplier.get();
+            } catch (RuntimeException e) {
+                Logger.getLogger().warn("Unable to evaluate property ''{0}'' of ''{1}'': {2}", key.propName, key.get(), e.getMessage());
+                synchronized (JOBS) {
+                    JOBS.remove(key);
+                }
+                // Waiting consumers are not left without an answer
+                deliver(() -> {
+                    T fallback = job.fallback.get();
+                    job.consumers.forEach(consumer -> consumer.accept(fallback));
+                });
+                return;
+            }
+            synchronized (JOBS) {
+                if (job.rerun) {
+                    job.rerun = false;
+                    schedule(key, job);
+                    return;
+                }
+                JOBS.remove(key);
+                if (RESULTS.size() >= MAX_RESULTS) {
+                    long now = System.currentTimeMillis();
+                    RESULTS.values().removeIf(evaluated -> now - evaluated >= TTL);
+                }
+                RESULTS.put(key, System.currentTimeMillis());
+            }
+            deliver(() -> job.consumers.forEach(consumer -> consumer.accept(value)));
+        });
+    }
+
+    private static void deliver(Runnable update) {
+        synchronized (PENDING) {
+            if (PENDING.isEmpty()) {
+                SwingUtilities.invokeLater(PropertyEvaluator::flush);
+            }
+            PENDING.add(update);
+        }
+    }
+
+    private static void flush() {
+        List<Runnable> batch;
+        synchronized (PENDING) {
+            batch = new ArrayList<>(PENDING);
+            PENDING.clear();
+        }
+        batch.forEach(Runnable::run);
+    }
+
+}
@@ -54,9 +54,8 @@ public class Release extends BinarySource {
     
     public Map<String, Path> getRequiredLayers(String topLayer, boolean online) {
         if (online) {
-            try {
-                ISVNAuthenticationManager authMgr = getRepository().getAuthManager();
-                InputStream in = SVN.readFile(getRemotePath(), "release.xml", authMgr);
+            ISVNAuthenticationManager authMgr = getRepository().getAuthManager();
+            try (InputStream in = SVN.readFile(getRemotePath(), "release.xml", authMgr)) {
                 ReleaseDocument releaseDoc = ReleaseDocument.Factory.parse(in);
                 manager.xml.Release.Branch.Layer[] layers = releaseDoc.getRelease().getBranch().getLayerArray();
                 return createLayerChain(layers, topLayer);
@@ -50,6 +50,10 @@ public class Repository extends Entity {
     private final static Map<String, Class<? extends RepositoryBranch>> BRANCHES = new HashMap<>();
     private final static IConfigStoreService CAS = (IConfigStoreService) ServiceRegistry.getInstance().lookupService(ConfigStoreService.class);
 
+    private List<Object> authKey;
+    private ISVNAuthenticationManager authMgr;
+    private volatile boolean offline = false;
+
     static {
         ClassIndex.getSubclasses(RepositoryBranch.class).forEach(branchClass ->
                 BRANCHES.put(branchClass.getAnnotation(RepositoryBranch.Branch.class).remoteDir(), branchClass));
@@ -151,6 +155,14 @@ public class Repository extends Entity {
         model.setValue(PROP_LOCKED, value);
     }
 
+    public final boolean isOffline() {
+        return offline;
+    }
+
+    public final void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
     @Override
     public void setParent(INode parent) {
         super.setParent(parent);
@@ -161,6 +173,19 @@ public class Repository extends Entity {
     
     public ISVNAuthenticationManager getAuthManager() {
         SVNAuth authType = getAuthMode(true);
+        List<Object> authKey = authType == SVNAuth.Password ?
+                Arrays.asList(authType, getSvnUser(true), getSvnPass(true)) :
+                Collections.singletonList(authType);
+        synchronized (this) {
+            if (!authKey.equals(this.authKey)) {
+                this.authKey = authKey;
+                this.authMgr = createAuthManager(authType);
+            }
+            return authMgr;
+        }
+    }
+
+    private ISVNAuthenticationManager createAuthManager(SVNAuth authType) {
         switch (authType) {
             case Password:
                 return new BasicAuthenticationManager(new SVNAuthentication[]{
@@ -176,9 +201,8 @@ public class Repository extends Entity {
     }
 
     public String getSystemName() throws SVNException {
-        try {
-            ISVNAuthenticationManager authMgr = getAuthManager();
-            InputStream in = SVN.readFile(getRepoUrl(), REPO_CONFIG_FILE, authMgr);
+        ISVNAuthenticationManager authMgr = getAuthManager();
+        try (InputStream in = SVN.readFile(getRepoUrl(), REPO_CONFIG_FILE, authMgr)) {
             RepositoryConfigDocument repoConfig = RepositoryConfigDocument.Factory.parse(in);
             return repoConfig.getRepositoryConfig().getTitle();
         } catch (XmlException | IOException e) {
@@ -196,6 +220,10 @@ public class Repository extends Entity {
 
     private List<RepositoryBranch> getBranches() {
         List<RepositoryBranch> branches = new LinkedList<>();
+        if (isOffline()) {
+            branches.addAll(getLocalBranches());
+            return branches;
+        }
         try {
             SVN.list(getRepoUrl(), getAuthManager()).forEach(svnDirEntry -> {
                 if (BRANCHES.containsKey(svnDirEntry.getName())) {
@@ -4,13 +4,16 @@ import codex.model.Catalog;
 import codex.model.Entity;
 import codex.type.EntityRef;
 import manager.svn.SVN;
+import org.atteo.classindex.ClassIndex;
 import org.atteo.classindex.IndexSubclasses;
 import org.tmatesoft.svn.core.SVNDirEntry;
 import org.tmatesoft.svn.core.SVNException;
 import javax.swing.*;
 import java.lang.annotation.*;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @IndexSubclasses
 @RepositoryBranch.Branch(remoteDir = "", localDir="", hasArchive = false)
@@ -25,6 +28,17 @@ public abstract class RepositoryBranch extends Catalog {
         String remoteDir();
         String localDir();
         boolean hasArchive();
+        boolean immutable() default false;
+    }
+
+    private final static List<Pattern> IMMUTABLE_PATHS = StreamSupport.stream(ClassIndex.getSubclasses(RepositoryBranch.class).spliterator(), false)
+            .map(branchClass -> branchClass.getAnnotation(Branch.class))
+            .filter(Branch::immutable)
+            .map(branch -> Pattern.compile(".*/(" + ARCHIVE_DIR + "/)?" + Pattern.quote(branch.remoteDir()) + "/[^/]+(/.*)?"))
+            .collect(Collectors.toList());
+
+    public static boolean isImmutablePath(String url) {
+        return IMMUTABLE_PATHS.stream().anyMatch(pattern -> pattern.matcher(url).matches());
     }
 
     RepositoryBranch(EntityRef owner, ImageIcon icon, String title, String hint) {
@@ -57,7 +71,7 @@ public abstract class RepositoryBranch extends Catalog {
     @Override
     public final Collection<String> getChildrenPIDs() {
         List<String> PIDs = new LinkedList<>();
-        if (getRepository().isLocked(true)) {
+        if (getRepository().isLocked(true) && !getRepository().isOffline()) {
             PIDs.addAll(getDirectories().stream()
                     .map(subDir -> {
                         try {
@@ -0,0 +1,108 @@
+package manager.nodes;
+
+import manager.svn.SVN;
+import manager.type.WCStatus;
+import org.tmatesoft.svn.core.wc.SVNInfo;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.core.wc.SVNWCUtil;
+import java.io.File;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+final class WCStatusService {
+
+    private final static long REMOTE_TTL = TimeUnit.SECONDS.toMillis(10);
+
+    static final Info PENDING = new Info(WCStatus.Absent, SVNRevision.UNDEFINED, null);
+
+    static final class Info {
+        final WCStatus    status;
+        final SVNRevision revision;
+        final Date        date;
+        final long        created = System.currentTimeMillis();
+        final long        stamp;
+
+        Info(WCStatus status, SVNRevision revision, Date date) {
+            this(status, revision, date, 0);
+        }
+
+        Info(WCStatus status, SVNRevision revision, Date date, long stamp) {
+            this.status   = status;
+            this.revision = revision;
+            this.date     = date;
+            this.stamp    = stamp;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - created > REMOTE_TTL;
+        }
+
+        boolean isModified(Offshoot offshoot) {
+            return stamp != stamp(offshoot.getLocalPath());
+        }
+    }
+
+    private WCStatusService() {}
+
+    static Info readLocal(Offshoot offshoot) {
+        final String wcPath = offshoot.getLocalPath();
+        final File localDir = new File(wcPath);
+        final long stamp = stamp(wcPath);
+        if (!localDir.exists()) {
+            return new Info(WCStatus.Absent, SVNRevision.UNDEFINED, null, stamp);
+        } else if (!SVNWCUtil.isVersionedDirectory(localDir)) {
+            return new Info(WCStatus.Invalid, SVNRevision.UNDEFINED, null, stamp);
+        }
+        SVNInfo info = SVN.info(wcPath, false, offshoot.getRepository().getAuthManager());
+        if (info == null) {
+            return new Info(WCStatus.Interrupted, SVNRevision.UNDEFINED, null, stamp);
+        } else if (
+                info.getCommittedDate() == null ||
+                info.getCommittedRevision() == null ||
+                info.getCommittedRevision() == SVNRevision.UNDEFINED
+        ) {
+            return new Info(WCStatus.Interrupted, info.getCommittedRevision(), info.getCommittedDate(), stamp);
+        } else {
+            return new Info(WCStatus.Succesfull, info.getCommittedRevision(), info.getCommittedDate(), stamp);
+        }
+    }
+
+    private static long stamp(String wcPath) {
+        // Any SVN operation on the working copy rewrites its database, so one stat detects outside changes
+        File localDir = new File(wcPath);
+        if (!localDir.exists()) {
+            return -1;
+        }
+        return new File(new File(localDir, ".svn"), "wc.db").lastModified();
+    }
+
+    static Info readRemote(Offshoot offshoot) {
+        SVNInfo info = SVN.info(offshoot.getRemotePath(), true, offshoot.getRepository().getAuthManager());
+        return info == null ?
+                new Info(null, SVNRevision.UNDEFINED, null) :
+                new Info(null, info.getCommittedRevision(), info.getCommittedDate());
+    }
+
+    static void request(Offshoot offshoot, boolean modified) {
+        if (modified) {
+            PropertyEvaluator.invalidate(offshoot, Offshoot.PROP_WC_STATUS);
+        }
+        PropertyEvaluator.request(offshoot, Offshoot.PROP_WC_STATUS, () -> readLocal(offshoot), info -> {
+            if (info != null) {
+                offshoot.setWorkingCopyInfo(info);
+                offshoot.model.updateDynamicProps();
+            }
+        });
+    }
+
+    static void refresh(Offshoot offshoot, Runnable onRefresh) {
+        PropertyEvaluator.refresh(offshoot, Offshoot.PROP_WC_STATUS, () -> readLocal(offshoot), info -> {
+            offshoot.setWorkingCopyInfo(info);
+            offshoot.model.updateDynamicProps();
+            if (onRefresh != null) {
+                onRefresh.run();
+            }
+        });
+    }
+
+}
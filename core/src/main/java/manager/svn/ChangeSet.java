@@ -0,0 +1,42 @@
+package manager.svn;
+
+import java.nio.file.Path;
+import java.util.*;
+
+public final class ChangeSet extends AbstractSet<Path> {
+
+    private final Set<Path> files = new LinkedHashSet<>();
+    private final Set<Path> dirs  = new HashSet<>();
+
+    @Override
+    public boolean add(Path file) {
+        if (files.add(file)) {
+            Path parent = file.getParent();
+            while (parent != null && dirs.add(parent)) {
+                parent = parent.getParent();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object file) {
+        return files.contains(file);
+    }
+
+    public boolean hasChangesUnder(Path dir) {
+        return dirs.contains(dir) || files.contains(dir);
+    }
+
+    @Override
+    public Iterator<Path> iterator() {
+        return Collections.unmodifiableSet(files).iterator();
+    }
+
+    @Override
+    public int size() {
+        return files.size();
+    }
+
+}
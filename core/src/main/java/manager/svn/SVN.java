@@ -5,22 +5,23 @@ import codex.log.Logger;
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.tmatesoft.svn.core.*;
 import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
 import org.tmatesoft.svn.core.internal.io.svn.SVNRepositoryFactoryImpl;
-import org.tmatesoft.svn.core.internal.wc.DefaultSVNOptions;
 import org.tmatesoft.svn.core.io.SVNRepository;
-import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
 import org.tmatesoft.svn.core.wc.ISVNEventHandler;
 import org.tmatesoft.svn.core.wc.ISVNStatusHandler;
-import org.tmatesoft.svn.core.wc.SVNClientManager;
 import org.tmatesoft.svn.core.wc.SVNEvent;
 import org.tmatesoft.svn.core.wc.SVNEventAction;
 import org.tmatesoft.svn.core.wc.SVNInfo;
@@ -33,7 +34,6 @@ import org.tmatesoft.svn.core.wc.SVNUpdateClient;
 import org.tmatesoft.svn.core.wc.SVNWCClient;
 import org.tmatesoft.svn.core.wc.SVNWCUtil;
 import org.tmatesoft.svn.core.wc2.SvnDiffSummarize;
-import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
 import org.tmatesoft.svn.core.wc2.SvnTarget;
 import org.tmatesoft.svn.util.SVNDebugLog;
 import org.tmatesoft.svn.util.SVNDebugLogAdapter;
@@ -42,6 +42,7 @@ import org.tmatesoft.svn.util.SVNLogType;
 public class SVN {
 
     static {
+        SVNRepositoryFactoryImpl.setup();
         SVNDebugLog.setDefaultLog(new SVNDebugLogAdapter() {
             @Override
             public void log(SVNLogType svnLogType, Throwable throwable, Level level) {}
@@ -52,6 +53,11 @@ public class SVN {
         });
     }
 
+    private static final SVNSessionPool   POOL  = new SVNSessionPool();
+    private static final SVNMetadataCache CACHE = new SVNMetadataCache();
+
+    private static final int MEMORY_THRESHOLD = 1024 * 1024;
+
     private static final String SVN_PROTOCOL   = "svn";
     private static final String SSH_PROTOCOL   = "svn+";
     private static final String HTTP_PROTOCOL  = "http";
@@ -87,74 +93,80 @@ public class SVN {
             try {
                 try (Socket socket = new Socket()) {
                     socket.connect(new InetSocketAddress(host, port), 500);
-                    SVNRepository repository = SVNRepositoryFactory.create(url);
-                    try {
-                        repository.setTunnelProvider(SVNWCUtil.createDefaultOptions(true));
-                        repository.testConnection();
-                        return true;
-                    } finally {
-                        repository.closeSession();
-                    }
                 }
             } catch (IOException e) {
                 throw new IOException(MessageFormat.format("Can not connect to remote host ''{0}:{1}''", host, port));
             }
+            return POOL.execute(path, authMgr, clientMgr -> {
+                SVNRepository repository = clientMgr.createRepository(url, true);
+                repository.testConnection();
+                return true;
+            });
         }
     }
     
     public static SVNInfo info(String url, boolean remote, ISVNAuthenticationManager authMgr){
-        SVNInfo info = null;
-        final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
-        
         try {
-            if (remote) {
-                SVNURL svnUrl = SVNURL.parseURIEncoded(url);
-                info = clientMgr.getWCClient().doInfo(svnUrl, SVNRevision.HEAD, SVNRevision.HEAD);
-            } else if (new File(url).exists()) {
-                info = clientMgr.getWCClient().doInfo(new File(url), SVNRevision.WORKING);
-            }
+            return POOL.execute(remote ? url : null, authMgr, clientMgr -> {
+                if (remote) {
+                    SVNURL svnUrl = SVNURL.parseURIEncoded(url);
+                    return clientMgr.getWCClient().doInfo(svnUrl, SVNRevision.HEAD, SVNRevision.HEAD);
+                } else if (new File(url).exists()) {
+                    return clientMgr.getWCClient().doInfo(new File(url), SVNRevision.WORKING);
+                }
+                return null;
+            });
         } catch (SVNException e) {
             Logger.getLogger().warn("SVN operation ''info'' error: {0}", e.getErrorMessage());
-        } finally {
-            clientMgr.dispose();
         }
-        return info;
+        return null;
     }
 
     public static SVNStatus status(String url, boolean remote, ISVNAuthenticationManager authMgr){
-        SVNStatus status = null;
-        final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
-
         try {
-            status = clientMgr.getStatusClient().doStatus(new File(url), remote);
+            return POOL.execute(null, authMgr, clientMgr -> clientMgr.getStatusClient().doStatus(new File(url), remote));
         } catch (SVNException e) {
             Logger.getLogger().warn("SVN operation ''status'' error: {0}", e.getErrorMessage());
-        } finally {
-            clientMgr.dispose();
         }
-        return status;
+        return null;
     }
     
+    public static void setMetadataCache(Path cacheDir, Predicate<String> immutable) {
+        CACHE.configure(cacheDir, immutable);
+    }
+
+    private static SVNMetadataCache.Stamp getLatestRevision(String url, ISVNAuthenticationManager authMgr) throws SVNException {
+        return POOL.execute(url, authMgr, clientMgr -> {
+            SVNRepository repository = clientMgr.createRepository(SVNURL.parseURIEncoded(url), true);
+            long revision = repository.getLatestRevision();
+            return new SVNMetadataCache.Stamp(repository.getRepositoryRoot(true).toString(), revision);
+        });
+    }
+
     public static List<SVNDirEntry> list(String url, ISVNAuthenticationManager authMgr) throws SVNException {
-        final List<SVNDirEntry> entries = new LinkedList<>();
-        final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
-        
-        try {
-            SVNURL svnUrl = SVNURL.parseURIEncoded(url);
-            SVNLogClient client = clientMgr.getLogClient();
-            client.doList(svnUrl, SVNRevision.HEAD, SVNRevision.HEAD, true, false, entries::add);
-        } finally {
-            clientMgr.dispose();
-        }
-        return entries;
+        return CACHE.get(
+                url,
+                MessageFormat.format("list:{0}@{1}", url, SVNRevision.HEAD),
+                SVNMetadataCache.DIR_ENTRY,
+                () -> getLatestRevision(url, authMgr),
+                () -> {
+                    final List<SVNDirEntry> entries = new LinkedList<>();
+                    POOL.execute(url, authMgr, clientMgr -> {
+                        SVNURL svnUrl = SVNURL.parseURIEncoded(url);
+                        SVNLogClient client = clientMgr.getLogClient();
+                        client.doList(svnUrl, SVNRevision.HEAD, SVNRevision.HEAD, true, false, entries::add);
+                        return null;
+                    });
+                    return entries;
+                }
+        );
     }
     
-    public static List<Path> changes(String path, String url, SVNRevision revision, ISVNAuthenticationManager authMgr, ISVNEventHandler handler) throws SVNException {
-        List<Path> changes = new ArrayList<>();
-        final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
+    public static ChangeSet changes(String path, String url, SVNRevision revision, ISVNAuthenticationManager authMgr, ISVNEventHandler handler) throws SVNException {
+        ChangeSet changes = new ChangeSet();
         final File localDir = new File(path);
 
-        try {
+        POOL.execute(url, authMgr, clientMgr -> {
             if (!SVNWCUtil.isVersionedDirectory(localDir)) {
                 // Checkout
                 SVNURL svnUrl = SVNURL.parseURIEncoded(url);
@@ -204,7 +216,7 @@ public class SVN {
 
                     if (wcstatus.isVersioned()) {
                         SVNRevision current = statusClient.doStatus(localDir, false).getRevision();
-                        final SvnDiffSummarize diff = new SvnOperationFactory().createDiffSummarize();
+                        final SvnDiffSummarize diff = clientMgr.getOperationFactory().createDiffSummarize();
                         diff.setSources(
                                 SvnTarget.fromFile(localDir, current),
                                 SvnTarget.fromURL(SVNURL.parseURIEncoded(url), revision)
@@ -216,7 +228,7 @@ public class SVN {
                             }
 
                             File file = new File(localDir, status.getUrl().getPath().replace(svnUrl.getPath(), ""));
-                            if (!changes.contains(file.toPath()) && status.getKind() == SVNNodeKind.FILE) {
+                            if (status.getKind() == SVNNodeKind.FILE) {
                                 changes.add(file.toPath());
                             }
                         });
@@ -226,30 +238,27 @@ public class SVN {
                     // Do nothing
                 }
             }
-        } finally {
-            clientMgr.dispose();
-        }
+            return null;
+        });
         return changes;
     }
     
     public static void update(String url, String path, SVNRevision revision, ISVNAuthenticationManager authMgr, ISVNEventHandler handler) throws SVNException {
-        final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
-        final SVNUpdateClient updateClient = clientMgr.getUpdateClient();
-        updateClient.setIgnoreExternals(false);
-        if (handler != null) {
-            updateClient.setEventHandler(handler);
-        }
-        final File localDir = new File(path);
-        try {
+        POOL.execute(url, authMgr, clientMgr -> {
+            final SVNUpdateClient updateClient = clientMgr.getUpdateClient();
+            updateClient.setIgnoreExternals(false);
+            if (handler != null) {
+                updateClient.setEventHandler(handler);
+            }
+            final File localDir = new File(path);
             if (!SVNWCUtil.isVersionedDirectory(localDir)) {
                 SVNURL svnUrl = SVNURL.parseURIEncoded(url);
                 updateClient.doCheckout(svnUrl, localDir, SVNRevision.UNDEFINED, revision, SVNDepth.INFINITY, false);
             } else {
                 updateClient.doUpdate(localDir, revision, SVNDepth.INFINITY, false, false);
             }
-        } finally {
-            clientMgr.dispose();
-        }
+            return null;
+        });
     }    
     
     public static void export(String url, String path, ISVNAuthenticationManager authMgr) throws SVNException {
@@ -257,54 +266,156 @@ public class SVN {
     }
     
     public static void export(String url, String path, ISVNAuthenticationManager authMgr, SVNDepth depth) throws SVNException {
-        final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
-        try {
+        POOL.execute(url, authMgr, clientMgr -> {
             SVNURL svnUrl = SVNURL.parseURIEncoded(url);
             SVNUpdateClient client = clientMgr.getUpdateClient();
             client.doExport(svnUrl, new File(path), SVNRevision.HEAD, SVNRevision.HEAD, null, true, depth != null ? depth : SVNDepth.INFINITY);
-        } finally {
-            clientMgr.dispose();
-        }
+            return null;
+        });
     }
     
+    public static void exportFiles(String url, String path, Collection<String> names, ISVNAuthenticationManager authMgr) throws SVNException {
+        POOL.execute(url, authMgr, clientMgr -> {
+            // Listed files of the directory are exported one by one through the same client, with the same
+            // eol-style and keywords translation as the directory export
+            SVNURL dirUrl = SVNURL.parseURIEncoded(url);
+            SVNUpdateClient client = clientMgr.getUpdateClient();
+            for (String name : names) {
+                File target = new File(path, name);
+                File temp = null;
+                try {
+                    Files.createDirectories(target.getParentFile().toPath());
+                    temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+                    client.doExport(dirUrl.appendPath(name, false), temp, SVNRevision.HEAD, SVNRevision.HEAD, null, true, SVNDepth.EMPTY);
+                    Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getMessage()), e);
+                } finally {
+                    if (temp != null) {
+                        FileUtils.deleteQuietly(temp);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
     public static InputStream readFile(String url, String path, ISVNAuthenticationManager authMgr) throws SVNException {
-        SVNRepositoryFactoryImpl.setup();
-        SVNRepository repository = SVNRepositoryFactory.create(SVNURL.parseURIEncoded(url));
-        repository.setAuthenticationManager(authMgr);
-        repository.setTunnelProvider(SVNWCUtil.createDefaultOptions(true));
+        return readFile(url, path, authMgr, 0, -1, MEMORY_THRESHOLD);
+    }
+
+    public static InputStream readFile(String url, String path, ISVNAuthenticationManager authMgr, long offset, long length) throws SVNException {
+        return readFile(url, path, authMgr, offset, length, MEMORY_THRESHOLD);
+    }
+
+    public static InputStream readFile(String url, String path, ISVNAuthenticationManager authMgr, long offset, long length, int threshold) throws SVNException {
+        final DeferredFileOutputStream buffer = new DeferredFileOutputStream(threshold, "svn", ".tmp", null);
+        final RangeOutputStream range = new RangeOutputStream(buffer, offset, length);
+        try {
+            POOL.execute(url, authMgr, clientMgr -> {
+                SVNRepository repository = clientMgr.createRepository(SVNURL.parseURIEncoded(url), true);
+                try {
+                    repository.getFile(path, -1, new SVNProperties(), range);
+                } catch (SVNException e) {
+                    if (!range.isComplete()) {
+                        throw e;
+                    }
+                    // Transfer was interrupted after the requested range had been read
+                    repository.closeSession();
+                }
+                return null;
+            });
+            buffer.close();
+        } catch (SVNException | IOException e) {
+            FileUtils.deleteQuietly(buffer.getFile());
+            if (e instanceof SVNException) {
+                throw (SVNException) e;
+            } else {
+                throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getMessage()), e);
+            }
+        }
+        if (buffer.isInMemory()) {
+            return new ByteArrayInputStream(buffer.getData());
+        } else {
+            final File spill = buffer.getFile();
+            try {
+                return new FileInputStream(spill) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        Files.deleteIfExists(spill.toPath());
+                    }
+                };
+            } catch (FileNotFoundException e) {
+                throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getMessage()), e);
+            }
+        }
+    }
 
-        SVNProperties properties = new SVNProperties();
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        repository.getFile(path, -1, properties, baos);
+    private static class RangeOutputStream extends OutputStream {
 
-        return new ByteArrayInputStream(baos.toByteArray());
+        private final OutputStream out;
+        private final long offset;
+        private final long limit;
+        private long position = 0;
+
+        RangeOutputStream(OutputStream out, long offset, long length) {
+            this.out    = out;
+            this.offset = offset;
+            this.limit  = length < 0 ? Long.MAX_VALUE : offset + length;
+        }
+
+        boolean isComplete() {
+            return position >= limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (isComplete()) {
+                throw new EOFException("Requested range has been read");
+            }
+            long start = Math.max(position, offset);
+            long end   = Math.min(position + len, limit);
+            if (start < end) {
+                out.write(b, off + (int) (start - position), (int) (end - start));
+            }
+            position += len;
+        }
     }
 
     public static SVNRevision getMinimalRevision(String url, ISVNAuthenticationManager authMgr) throws SVNException {
-        final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
         AtomicReference<SVNLogEntry> logEntry = new AtomicReference<>();
-        try {
+        POOL.execute(url, authMgr, clientMgr -> {
             SVNURL svnUrl = SVNURL.parseURIEncoded(url);
             SVNLogClient client = clientMgr.getLogClient();
             client.doLog(svnUrl, new String[]{""}, SVNRevision.HEAD, SVNRevision.create(1), SVNRevision.HEAD, true, false, 1, logEntry::set);
-        } finally {
-            clientMgr.dispose();
-        }
+            return null;
+        });
         return logEntry.get() != null ? SVNRevision.create(logEntry.get().getRevision()) : SVNRevision.UNDEFINED;
     }
 
     public static List<SVNLogEntry> log(String url, SVNRevision from, SVNRevision to, long limit, ISVNAuthenticationManager authMgr) throws SVNException {
-        List<SVNLogEntry> log = new LinkedList<>();
-        final SVNClientManager clientMgr = SVNClientManager.newInstance(new DefaultSVNOptions(), authMgr);
-
-        try {
-            SVNURL svnUrl = SVNURL.parseURIEncoded(url);
-            SVNLogClient client = clientMgr.getLogClient();
-            client.doLog(svnUrl, new String[]{""}, SVNRevision.HEAD, from, to, true, false, limit, log::add);
-        } finally {
-            clientMgr.dispose();
-        }
-        return log;
+        return CACHE.get(
+                url,
+                MessageFormat.format("log:{0}@{1}:{2}:{3}:{4}", url, SVNRevision.HEAD, from, to, String.valueOf(limit)),
+                SVNMetadataCache.LOG_ENTRY,
+                () -> getLatestRevision(url, authMgr),
+                () -> {
+                    List<SVNLogEntry> log = new LinkedList<>();
+                    POOL.execute(url, authMgr, clientMgr -> {
+                        SVNURL svnUrl = SVNURL.parseURIEncoded(url);
+                        SVNLogClient client = clientMgr.getLogClient();
+                        client.doLog(svnUrl, new String[]{""}, SVNRevision.HEAD, from, to, true, false, limit, log::add);
+                        return null;
+                    });
+                    return log;
+                }
+        );
     }
     
 }
@@ -0,0 +1,216 @@
+package manager.svn;
+
+import codex.log.Logger;
+import org.tmatesoft.svn.core.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+final class SVNMetadataCache {
+
+    private final static int  VERSION      = 1;
+    private final static long IMMUTABLE    = -1;
+    private final static long REVISION_TTL = 5000;
+
+    @FunctionalInterface
+    interface Loader<T> {
+        List<T> load() throws SVNException;
+    }
+
+    @FunctionalInterface
+    interface RevisionGetter {
+        Stamp getLatestRevision() throws SVNException;
+    }
+
+    interface Codec<T> {
+        void write(DataOutputStream out, T value) throws IOException;
+        T read(DataInputStream in) throws IOException, SVNException;
+    }
+
+    static final class Stamp {
+        final String root;
+        final long   revision;
+        final long   checked = System.currentTimeMillis();
+
+        Stamp(String root, long revision) {
+            this.root     = root;
+            this.revision = revision;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - checked < REVISION_TTL;
+        }
+    }
+
+    static final Codec<SVNDirEntry> DIR_ENTRY = new Codec<SVNDirEntry>() {
+        @Override
+        public void write(DataOutputStream out, SVNDirEntry entry) throws IOException {
+            writeString(out, entry.getURL().toString());
+            writeString(out, entry.getRepositoryRoot() == null ? null : entry.getRepositoryRoot().toString());
+            writeString(out, entry.getName());
+            writeString(out, entry.getKind().toString());
+            out.writeLong(entry.getSize());
+            out.writeBoolean(entry.hasProperties());
+            out.writeLong(entry.getRevision());
+            out.writeLong(entry.getDate() == null ? -1 : entry.getDate().getTime());
+            writeString(out, entry.getAuthor());
+        }
+
+        @Override
+        public SVNDirEntry read(DataInputStream in) throws IOException, SVNException {
+            SVNURL url  = SVNURL.parseURIEncoded(readString(in));
+            String root = readString(in);
+            String name = readString(in);
+            SVNNodeKind kind = SVNNodeKind.parseKind(readString(in));
+            long size = in.readLong();
+            boolean hasProps = in.readBoolean();
+            long revision = in.readLong();
+            long date = in.readLong();
+            String author = readString(in);
+            return new SVNDirEntry(
+                    url, root == null ? null : SVNURL.parseURIEncoded(root),
+                    name, kind, size, hasProps, revision, date == -1 ? null : new Date(date), author
+            );
+        }
+    };
+
+    static final Codec<SVNLogEntry> LOG_ENTRY = new Codec<SVNLogEntry>() {
+        @Override
+        public void write(DataOutputStream out, SVNLogEntry entry) throws IOException {
+            out.writeLong(entry.getRevision());
+            writeString(out, entry.getAuthor());
+            out.writeLong(entry.getDate() == null ? -1 : entry.getDate().getTime());
+            writeString(out, entry.getMessage());
+        }
+
+        @Override
+        public SVNLogEntry read(DataInputStream in) throws IOException {
+            long revision = in.readLong();
+            String author = readString(in);
+            long date = in.readLong();
+            String message = readString(in);
+            return new SVNLogEntry(null, revision, author, date == -1 ? null : new Date(date), message);
+        }
+    };
+
+    private volatile Path cacheDir;
+    private volatile Predicate<String> immutable = url -> false;
+    private final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    void configure(Path cacheDir, Predicate<String> immutable) {
+        this.cacheDir  = cacheDir;
+        this.immutable = immutable != null ? immutable : url -> false;
+    }
+
+    <T> List<T> get(String url, String key, Codec<T> codec, RevisionGetter revisionGetter, Loader<T> loader) throws SVNException {
+        final Path dir = cacheDir;
+        if (dir == null) {
+            return loader.load();
+        }
+        final Path file = dir.resolve(hash(key));
+        final boolean isImmutable = immutable.test(url);
+        long latest = IMMUTABLE;
+        if (!isImmutable) {
+            latest = getLatestRevision(url, revisionGetter);
+        }
+
+        List<T> cached = read(file, key, codec, latest);
+        if (cached != null) {
+            return cached;
+        }
+        List<T> loaded = loader.load();
+        write(file, key, codec, latest, loaded);
+        return loaded;
+    }
+
+    private long getLatestRevision(String url, RevisionGetter revisionGetter) throws SVNException {
+        for (Stamp stamp : stamps.values()) {
+            if ((url.equals(stamp.root) || url.startsWith(stamp.root.concat("/"))) && stamp.isFresh()) {
+                return stamp.revision;
+            }
+        }
+        Stamp stamp = revisionGetter.getLatestRevision();
+        stamps.put(stamp.root, stamp);
+        return stamp.revision;
+    }
+
+    private <T> List<T> read(Path file, String key, Codec<T> codec, long latest) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != VERSION || !key.equals(readString(in)) || in.readLong() != latest) {
+                return null;
+            }
+            int size = in.readInt();
+            List<T> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(codec.read(in));
+            }
+            return values;
+        } catch (IOException | SVNException e) {
+            Logger.getLogger().warn("Unable to read SVN metadata cache file ''{0}'': {1}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> void write(Path file, String key, Codec<T> codec, long latest, List<T> values) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(VERSION);
+                writeString(out, key);
+                out.writeLong(latest);
+                out.writeInt(values.size());
+                for (T value : values) {
+                    codec.write(out, value);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.getLogger().warn("Unable to write SVN metadata cache file ''{0}'': {1}", file, e.getMessage());
+        }
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,216 @@
+package manager.svn;
+
+import org.tmatesoft.svn.core.SVNCancelException;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
+import org.tmatesoft.svn.core.internal.wc.DefaultSVNOptions;
+import org.tmatesoft.svn.core.wc.DefaultSVNRepositoryPool;
+import org.tmatesoft.svn.core.wc.SVNClientManager;
+import org.tmatesoft.svn.core.wc.SVNWCUtil;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+final class SVNSessionPool {
+
+    private final static long IDLE_TIMEOUT     = TimeUnit.MINUTES.toMillis(2);
+    private final static long EVICT_PERIOD     = TimeUnit.SECONDS.toMillis(30);
+    private final static long VALIDATE_AFTER   = TimeUnit.SECONDS.toMillis(5);
+    private final static int  MAX_IDLE_PER_KEY = 4;
+    private final static int  MAX_IDLE_TOTAL   = 32;
+
+    private final static List<SVNErrorCode> BROKEN_CODES = Arrays.asList(
+            SVNErrorCode.RA_SVN_IO_ERROR,
+            SVNErrorCode.RA_SVN_MALFORMED_DATA,
+            SVNErrorCode.RA_SVN_CONNECTION_CLOSED,
+            SVNErrorCode.RA_NOT_AUTHORIZED,
+            SVNErrorCode.IO_ERROR,
+            SVNErrorCode.CANCELLED
+    );
+
+    @FunctionalInterface
+    interface Action<R> {
+        R run(SVNClientManager clientMgr) throws SVNException;
+    }
+
+    private final Map<Key, Deque<Session>> idle = new HashMap<>();
+    private int idleCount = 0;
+
+    SVNSessionPool() {
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SVN session evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evict, EVICT_PERIOD, EVICT_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    <R> R execute(String url, ISVNAuthenticationManager authMgr, Action<R> action) throws SVNException {
+        final Session session = borrow(new Key(url, authMgr), url);
+        boolean healthy = true;
+        try {
+            return action.run(session.clientMgr);
+        } catch (SVNException e) {
+            // Connection of interrupted or failed operation may be left in the middle of exchange
+            healthy = !(e instanceof SVNCancelException) &&
+                      !(e.getCause() instanceof IOException) &&
+                      !BROKEN_CODES.contains(e.getErrorMessage().getErrorCode());
+            throw e;
+        } catch (RuntimeException | Error e) {
+            healthy = false;
+            throw e;
+        } finally {
+            release(session, healthy);
+        }
+    }
+
+    private Session borrow(Key key, String url) {
+        while (true) {
+            Session session;
+            synchronized (idle) {
+                Deque<Session> sessions = idle.get(key);
+                if (sessions == null || sessions.isEmpty()) {
+                    break;
+                }
+                session = sessions.pollFirst();
+                idleCount--;
+            }
+            // Session idle for a while is checked outside of the lock, server may have dropped its connection
+            if (session.isAlive() && (!session.isStale() || session.test(url))) {
+                return session;
+            }
+            session.dispose();
+        }
+        return new Session(key);
+    }
+
+    private void release(Session session, boolean healthy) {
+        if (healthy) {
+            session.reset();
+            synchronized (idle) {
+                Deque<Session> sessions = idle.computeIfAbsent(session.key, key -> new LinkedList<>());
+                if (sessions.size() < MAX_IDLE_PER_KEY && idleCount < MAX_IDLE_TOTAL) {
+                    sessions.addFirst(session);
+                    idleCount++;
+                    return;
+                }
+            }
+        }
+        session.dispose();
+    }
+
+    private void evict() {
+        List<Session> expired = new LinkedList<>();
+        synchronized (idle) {
+            Iterator<Map.Entry<Key, Deque<Session>>> entries = idle.entrySet().iterator();
+            while (entries.hasNext()) {
+                Deque<Session> sessions = entries.next().getValue();
+                sessions.removeIf(session -> {
+                    if (!session.isAlive()) {
+                        expired.add(session);
+                        return true;
+                    }
+                    return false;
+                });
+                if (sessions.isEmpty()) {
+                    entries.remove();
+                }
+            }
+            idleCount -= expired.size();
+        }
+        expired.forEach(Session::dispose);
+    }
+
+
+    private final static class Key {
+
+        private final String root;
+        private final ISVNAuthenticationManager authMgr;
+
+        Key(String url, ISVNAuthenticationManager authMgr) {
+            this.root    = getRoot(url);
+            this.authMgr = authMgr;
+        }
+
+        private static String getRoot(String url) {
+            if (url == null) {
+                return "";
+            }
+            try {
+                SVNURL svnUrl = SVNURL.parseURIEncoded(url);
+                return svnUrl.getProtocol() + "://" + svnUrl.getHost() + ":" + svnUrl.getPort();
+            } catch (SVNException e) {
+                // Working copy path
+                return "";
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Key key = (Key) obj;
+            return root.equals(key.root) && authMgr == key.authMgr;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * root.hashCode() + System.identityHashCode(authMgr);
+        }
+    }
+
+
+    private final static class Session {
+
+        private final Key              key;
+        private final SVNClientManager clientMgr;
+        private final boolean          ignoreExternals;
+        private long                   lastUsed = System.currentTimeMillis();
+
+        Session(Key key) {
+            DefaultSVNOptions options = new DefaultSVNOptions();
+            this.key       = key;
+            this.clientMgr = SVNClientManager.newInstance(
+                    options,
+                    new DefaultSVNRepositoryPool(key.authMgr, SVNWCUtil.createDefaultOptions(true), IDLE_TIMEOUT, true)
+            );
+            this.ignoreExternals = clientMgr.getUpdateClient().isIgnoreExternals();
+        }
+
+        boolean isAlive() {
+            return System.currentTimeMillis() - lastUsed < IDLE_TIMEOUT;
+        }
+
+        boolean isStale() {
+            return System.currentTimeMillis() - lastUsed >= VALIDATE_AFTER;
+        }
+
+        boolean test(String url) {
+            if (key.root.isEmpty()) {
+                // Working copy operations do not hold a connection
+                return true;
+            }
+            try {
+                clientMgr.createRepository(SVNURL.parseURIEncoded(url), true).testConnection();
+                return true;
+            } catch (SVNException e) {
+                return false;
+            }
+        }
+
+        void reset() {
+            clientMgr.setEventHandler(null);
+            clientMgr.getUpdateClient().setIgnoreExternals(ignoreExternals);
+            lastUsed = System.currentTimeMillis();
+        }
+
+        void dispose() {
+            clientMgr.dispose();
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package manager.upgrade;
 
 import codex.service.IRemoteService;
 import java.rmi.RemoteException;
+import java.util.List;
 import manager.upgrade.stream.RemoteInputStream;
 import manager.xml.Version;
 import manager.xml.VersionsDocument;
@@ -20,6 +21,10 @@ public interface IUpgradeService extends IRemoteService {
     
     public RemoteInputStream getUpgradeFileStream() throws RemoteException;
     
+    public RemoteInputStream resumeUpgradeFileStream(String transfer) throws RemoteException;
+    
     public String getUpgradeFileChecksum() throws RemoteException;
     
+    public RemoteInputStream getUpgradeDeltaStream(List<JarDelta.Region> baseRegions) throws RemoteException;
+    
 }
@@ -0,0 +1,217 @@
+package manager.upgrade;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.ZipException;
+
+public final class JarDelta {
+
+    private final static int  MAGIC = 0x4A444C54;
+    private final static byte COPY  = 1;
+    private final static byte DATA  = 2;
+    private final static byte END   = 0;
+
+    private final static int  EOCD_SIGNATURE    = 0x06054b50;
+    private final static int  EOCD_SIZE         = 22;
+    private final static int  CENTRAL_SIGNATURE = 0x02014b50;
+    private final static int  CENTRAL_SIZE      = 46;
+    private final static int  MAX_COMMENT       = 0xFFFF;
+
+    public static final class Region implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final long   offset;
+        final long   length;
+        final String hash;
+
+        Region(long offset, long length, String hash) {
+            this.offset = offset;
+            this.length = length;
+            this.hash   = hash;
+        }
+    }
+
+    @FunctionalInterface
+    interface IProgressListener {
+        void progress(long written, long total);
+    }
+
+    private JarDelta() {}
+
+    static List<Region> getRegions(File jar) throws IOException {
+        // Archive is split at local entry headers, so unchanged entries are equal byte regions in both versions
+        try (FileChannel channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int  tail = (int) Math.min(size, EOCD_SIZE + MAX_COMMENT);
+            ByteBuffer end = read(channel, size - tail, tail);
+
+            int eocd = -1;
+            for (int i = tail - EOCD_SIZE; i >= 0; i--) {
+                if (end.getInt(i) == EOCD_SIGNATURE) {
+                    eocd = i;
+                    break;
+                }
+            }
+            if (eocd < 0) {
+                throw new ZipException("End of central directory not found");
+            }
+            int  entries  = end.getShort(eocd + 10) & 0xFFFF;
+            long cdSize   = end.getInt(eocd + 12) & 0xFFFFFFFFL;
+            long cdOffset = end.getInt(eocd + 16) & 0xFFFFFFFFL;
+            if (entries == 0xFFFF || cdOffset == 0xFFFFFFFFL || cdOffset + cdSize > size) {
+                throw new ZipException("Unsupported archive format");
+            }
+
+            TreeSet<Long> bounds = new TreeSet<>(Arrays.asList(0L, cdOffset, size));
+            ByteBuffer cd = read(channel, cdOffset, (int) cdSize);
+            int pos = 0;
+            for (int i = 0; i < entries; i++) {
+                if (pos + CENTRAL_SIZE > cd.limit() || cd.getInt(pos) != CENTRAL_SIGNATURE) {
+                    throw new ZipException("Invalid central directory");
+                }
+                bounds.add(cd.getInt(pos + 42) & 0xFFFFFFFFL);
+                pos += CENTRAL_SIZE + (cd.getShort(pos + 28) & 0xFFFF) + (cd.getShort(pos + 30) & 0xFFFF) + (cd.getShort(pos + 32) & 0xFFFF);
+            }
+
+            List<Region> regions = new ArrayList<>(bounds.size());
+            Long start = bounds.pollFirst();
+            for (Long bound : bounds) {
+                if (bound > start) {
+                    regions.add(new Region(start, bound - start, hash(channel, start, bound - start)));
+                }
+                start = bound;
+            }
+            return regions;
+        }
+    }
+
+    static String getKey(List<Region> regions) {
+        MessageDigest digest = newDigest();
+        regions.forEach(region -> {
+            digest.update(region.hash.getBytes());
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(region.length).array());
+        });
+        return DatatypeConverter.printHexBinary(digest.digest());
+    }
+
+    static void write(File jar, List<Region> regions, List<Region> baseRegions, OutputStream out) throws IOException {
+        Map<String, Region> base = new HashMap<>();
+        baseRegions.forEach(region -> base.putIfAbsent(region.hash, region));
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeLong(regions.stream().mapToLong(region -> region.length).sum());
+        try (FileChannel channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)) {
+            for (Region region : regions) {
+                Region match = base.get(region.hash);
+                if (match != null && match.length == region.length) {
+                    data.writeByte(COPY);
+                    data.writeLong(match.offset);
+                    data.writeLong(match.length);
+                } else {
+                    data.writeByte(DATA);
+                    data.writeLong(region.length);
+                    data.flush();
+                    long transferred = 0;
+                    while (transferred < region.length) {
+                        transferred += channel.transferTo(region.offset + transferred, region.length - transferred, Channels.newChannel(out));
+                    }
+                }
+            }
+        }
+        data.writeByte(END);
+        data.flush();
+    }
+
+    static void apply(File base, InputStream delta, OutputStream out, IProgressListener listener) throws IOException {
+        DataInputStream data = new DataInputStream(delta);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Invalid upgrade delta");
+        }
+        long total   = data.readLong();
+        long written = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (FileChannel channel = FileChannel.open(base.toPath(), StandardOpenOption.READ)) {
+            byte type;
+            while ((type = data.readByte()) != END) {
+                long remain;
+                if (type == COPY) {
+                    long offset = data.readLong();
+                    remain = data.readLong();
+                    while (remain > 0) {
+                        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, remain));
+                        int read = channel.read(chunk, offset);
+                        if (read == -1) {
+                            throw new EOFException("Upgrade delta refers beyond the end of local file");
+                        }
+                        out.write(buffer, 0, read);
+                        offset  += read;
+                        remain  -= read;
+                        written += read;
+                        listener.progress(written, total);
+                    }
+                } else if (type == DATA) {
+                    remain = data.readLong();
+                    while (remain > 0) {
+                        int read = data.read(buffer, 0, (int) Math.min(buffer.length, remain));
+                        if (read == -1) {
+                            throw new EOFException("Unexpected end of upgrade delta");
+                        }
+                        out.write(buffer, 0, read);
+                        remain  -= read;
+                        written += read;
+                        listener.progress(written, total);
+                    }
+                } else {
+                    throw new IOException("Invalid upgrade delta");
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String hash(FileChannel channel, long position, long length) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long remain = length;
+        while (remain > 0) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), remain));
+            int read = channel.read(buffer, position + length - remain);
+            if (read == -1) {
+                throw new EOFException();
+            }
+            buffer.flip();
+            digest.update(buffer);
+            remain -= read;
+        }
+        return DatatypeConverter.printHexBinary(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
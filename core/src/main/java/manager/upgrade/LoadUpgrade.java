@@ -9,6 +9,7 @@ import codex.task.*;
 import codex.utils.ImageUtils;
 import codex.utils.Language;
 import manager.upgrade.stream.RemoteInputStream;
+import manager.upgrade.stream.RemoteInputStreamServer;
 import manager.xml.Version;
 import manager.xml.VersionsDocument;
 import org.apache.commons.io.FilenameUtils;
@@ -25,14 +26,12 @@ import javax.swing.text.Style;
 import javax.swing.text.StyleConstants;
 import javax.xml.bind.DatatypeConverter;
 import java.awt.*;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.*;
 import java.net.InetSocketAddress;
 import java.nio.channels.FileChannel;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.text.DecimalFormat;
 import java.util.*;
@@ -116,18 +115,25 @@ class LoadUpgrade extends AbstractTask<Void> {
         );
 
         String remoteChecksum = remoteUpService.getUpgradeFileChecksum();
+        if (loadDelta(remoteUpService, remoteChecksum)) {
+            return null;
+        }
         MessageDigest localChecksum = MessageDigest.getInstance("MD5");
         try (
             FileOutputStream outStream = new FileOutputStream(upgradedFile)
         ) {
             RemoteInputStream inStream = remoteUpService.getUpgradeFileStream();
+            inStream.setReconnector(() -> inStream.getTransfer() == null ?
+                    remoteUpService.getUpgradeFileStream() :
+                    remoteUpService.resumeUpgradeFileStream(inStream.getTransfer())
+            );
 
             long fileSize = inStream.available();
             Logger.getLogger().info(
                     Language.get(UpgradeUnit.class, "process@file"),
                     "\n", formatFileSize(fileSize), remoteChecksum
             );
-            byte[] data = new byte[1024];
+            byte[] data = new byte[RemoteInputStreamServer.CHUNK_SIZE];
             long totalRead = 0;
             int  bytesRead = inStream.read(data);
             while (bytesRead != -1) {
@@ -162,6 +168,40 @@ class LoadUpgrade extends AbstractTask<Void> {
         return null;
     }
 
+    private boolean loadDelta(IUpgradeService remoteUpService, String remoteChecksum) {
+        // Unchanged entries are copied from the running jar, only changed ones are transferred
+        try {
+            List<JarDelta.Region> regions = JarDelta.getRegions(originalFile);
+            MessageDigest localChecksum = MessageDigest.getInstance("MD5");
+            try (
+                RemoteInputStream inStream = remoteUpService.getUpgradeDeltaStream(regions);
+                OutputStream outStream = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(upgradedFile)), localChecksum)
+            ) {
+                inStream.setReconnector(() -> remoteUpService.getUpgradeDeltaStream(regions));
+                Logger.getLogger().info(
+                        Language.get(UpgradeUnit.class, "process@delta"),
+                        "\n", formatFileSize(inStream.available()), remoteChecksum
+                );
+                JarDelta.apply(
+                        originalFile,
+                        new BufferedInputStream(inStream, RemoteInputStreamServer.CHUNK_SIZE),
+                        outStream,
+                        (written, total) -> setProgress(total == 0 ? 100 : (int) (100 * written / total), getDescription())
+                );
+            }
+            if (DatatypeConverter.printHexBinary(localChecksum.digest()).equals(remoteChecksum)) {
+                Logger.getLogger().info(Language.get(UpgradeUnit.class, "process@loaded"));
+                Logger.getLogger().info(Language.get(UpgradeUnit.class, "process@result.success"));
+                return true;
+            }
+            Logger.getLogger().warn(Language.get(UpgradeUnit.class, "process@delta.mismatch"));
+        } catch (Exception e) {
+            Logger.getLogger().warn(Language.get(UpgradeUnit.class, "process@delta.error"), e.getMessage());
+        }
+        upgradedFile.delete();
+        return false;
+    }
+
     @Override
     public void finished(Void result) {
         restartBtn.setEnabled(true);
@@ -6,23 +6,17 @@ import codex.service.AbstractRemoteService;
 import manager.commands.offshoot.BuildWC;
 import manager.upgrade.stream.RemoteInputStream;
 import manager.upgrade.stream.RemoteInputStreamServer;
+import manager.utils.ChecksumRegistry;
 import manager.xml.Version;
 import manager.xml.VersionList;
 import manager.xml.VersionsDocument;
 import org.apache.xmlbeans.XmlException;
-import javax.xml.bind.DatatypeConverter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.net.URISyntaxException;
-import java.nio.file.Files;
 import java.rmi.RemoteException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Semaphore;
 
 
@@ -46,8 +40,26 @@ public class UpgradeService extends AbstractRemoteService<UpgradeServiceOptions>
         }
     };
     
+    private final static int MAX_DELTAS = 8;
+
     private final VersionsDocument versionsDocument;
     private final Semaphore lock = new Semaphore(1, true);
+    private final Object transferLock = new Object();
+    private TransferStream transferStream;
+    private volatile List<JarDelta.Region> regions;
+    private final Map<String, CompletableFuture<File>> deltas = new LinkedHashMap<String, CompletableFuture<File>>(MAX_DELTAS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<File>> eldest) {
+            if (size() > MAX_DELTAS) {
+                File delta = getBuilt(eldest.getValue());
+                if (delta != null && !delta.delete()) {
+                    delta.deleteOnExit();
+                }
+                return true;
+            }
+            return false;
+        }
+    };
 
     public UpgradeService() throws Exception {
         super();
@@ -56,6 +68,7 @@ public class UpgradeService extends AbstractRemoteService<UpgradeServiceOptions>
             throw new ServiceNotLoadedException(this, "Running application in development mode");
         }
         versionsDocument = VersionsDocument.Factory.parse(this.getClass().getResourceAsStream(VERSION_RESOURCE));
+        ChecksumRegistry.precompute(getCurrentJar().toPath());
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             if (!lock.tryAcquire()) {
@@ -113,63 +126,175 @@ public class UpgradeService extends AbstractRemoteService<UpgradeServiceOptions>
     
     @Override
     public RemoteInputStream getUpgradeFileStream() throws RemoteException {
-        File jar = getCurrentJar();
         try {
-            InputStream in = new FileInputStream(jar) {
-                {
-                    try {
-                        lock.acquire();
-                    } catch (InterruptedException e) {}
-                }
-                @Override
-                public void close() throws IOException {
-                    try {
-                        super.close();
-                    } finally {
-                        lock.release();
-                    }
-                }
-            };
-
-            Logger.getLogger().debug("File stream of ''{0}'' opened for transmission (size: {1})", jar, String.valueOf(in.available()).concat(" bytes"));
-            return new RemoteInputStream(new RemoteInputStreamServer(in) {
-                boolean started = false;
-
-                @Override
-                public byte[] read(int count) throws IOException {
-                    byte[] read = super.read(count);
-                    if (!started) {
-                        started = true;
-                        Logger.getLogger().debug("File stream of ''{0}'' transmission started", jar);
-                    }
-                    if (read.length == 0) {
-                        Logger.getLogger().debug("File stream of ''{0}'' transmission finished", jar);
-                    }
-                    return read;
-                }
-                
-                @Override
-                public void close() throws IOException {
-                    super.close();
-                    Logger.getLogger().debug("File stream of ''{0}'' closed", jar);
-                }
-            });
+            lock.acquire();
+        } catch (InterruptedException e) {}
+        try {
+            return openTransfer(UUID.randomUUID().toString());
         } catch (IOException e) {
+            lock.release();
             Logger.getLogger().error("Error", e);
         }
         return null;
     }
+
+    @Override
+    public RemoteInputStream resumeUpgradeFileStream(String transfer) throws RemoteException {
+        synchronized (transferLock) {
+            if (transferStream == null || !transferStream.transfer.equals(transfer)) {
+                throw new RemoteException("Upgrade file transfer is not active");
+            }
+        }
+        // Lock is owned by the transfer, so the stream is reopened without acquiring it again
+        try {
+            return openTransfer(transfer);
+        } catch (IOException e) {
+            Logger.getLogger().error("Error", e);
+            throw new RemoteException(e.getMessage(), e);
+        }
+    }
+
+    private RemoteInputStream openTransfer(String transfer) throws IOException {
+        File jar = getCurrentJar();
+        TransferStream stream = new TransferStream(jar, transfer);
+        synchronized (transferLock) {
+            transferStream = stream;
+        }
+        Logger.getLogger().debug("File stream of ''{0}'' opened for transmission (size: {1})", jar, String.valueOf(jar.length()).concat(" bytes"));
+        return new RemoteInputStream(stream, transfer);
+    }
+
+    private final class TransferStream extends RemoteInputStreamServer {
+
+        private final File   jar;
+        private final String transfer;
+        private boolean started = false;
+
+        TransferStream(File jar, String transfer) throws IOException {
+            super(new FileInputStream(jar));
+            this.jar      = jar;
+            this.transfer = transfer;
+        }
+
+        @Override
+        public byte[] read(int count) throws IOException {
+            return logged(super.read(count));
+        }
+
+        @Override
+        public byte[] read(long offset, int count) throws IOException {
+            return logged(super.read(offset, count));
+        }
+
+        private byte[] logged(byte[] read) {
+            if (!started) {
+                started = true;
+                Logger.getLogger().debug("File stream of ''{0}'' transmission started", jar);
+            }
+            if (read.length == 0) {
+                Logger.getLogger().debug("File stream of ''{0}'' transmission finished", jar);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+                Logger.getLogger().debug("File stream of ''{0}'' closed", jar);
+            } finally {
+                // Stream replaced by a resumed one does not finish the transfer
+                synchronized (transferLock) {
+                    if (transferStream == this) {
+                        transferStream = null;
+                        lock.release();
+                    }
+                }
+            }
+        }
+    }
     
     @Override
     public String getUpgradeFileChecksum() throws RemoteException {
         try {
-            byte[] b = Files.readAllBytes(getCurrentJar().toPath());
-            byte[] hash = MessageDigest.getInstance("MD5").digest(b);
-            return DatatypeConverter.printHexBinary(hash);
-        } catch (IOException | NoSuchAlgorithmException e) {}
+            return ChecksumRegistry.getChecksum(getCurrentJar().toPath());
+        } catch (IOException e) {}
         return null;
     }
     
+    @Override
+    public RemoteInputStream getUpgradeDeltaStream(List<JarDelta.Region> baseRegions) throws RemoteException {
+        try {
+            File delta = getDelta(baseRegions);
+            Logger.getLogger().debug("Upgrade delta ''{0}'' opened for transmission (size: {1})", delta, String.valueOf(delta.length()).concat(" bytes"));
+            return new RemoteInputStream(new RemoteInputStreamServer(new FileInputStream(delta)));
+        } catch (IOException | InterruptedException e) {
+            Logger.getLogger().warn("Unable to prepare upgrade delta: {0}", e.getMessage());
+            throw new RemoteException(e.getMessage(), e);
+        }
+    }
+
+    private File getDelta(List<JarDelta.Region> baseRegions) throws IOException, InterruptedException {
+        // Instances of the same version send equal region lists, so the delta is built once per requester version
+        String key = JarDelta.getKey(baseRegions);
+        CompletableFuture<File> future;
+        boolean build = false;
+        synchronized (deltas) {
+            future = deltas.get(key);
+            File built = future == null ? null : getBuilt(future);
+            if (future == null || (future.isDone() && (built == null || !built.isFile()))) {
+                future = new CompletableFuture<>();
+                deltas.put(key, future);
+                build = true;
+            }
+        }
+        // Requesters of other versions do not wait for this delta, requesters of the same one wait for single build
+        if (build) {
+            try {
+                future.complete(buildDelta(baseRegions));
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                synchronized (deltas) {
+                    deltas.remove(key, future);
+                }
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    private File buildDelta(List<JarDelta.Region> baseRegions) throws IOException, InterruptedException {
+        lock.acquire();
+        File delta = null;
+        try {
+            delta = File.createTempFile("upgrade", ".delta");
+            delta.deleteOnExit();
+            File jar = getCurrentJar();
+            if (regions == null) {
+                regions = JarDelta.getRegions(jar);
+            }
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(delta))) {
+                JarDelta.write(jar, regions, baseRegions, out);
+            }
+            return delta;
+        } catch (IOException e) {
+            if (delta != null) {
+                delta.delete();
+            }
+            throw e;
+        } finally {
+            lock.release();
+        }
+    }
+
+    private static File getBuilt(CompletableFuture<File> future) {
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+    
     public static File getCurrentJar() {
         try {
             return new File(BuildWC.class.getProtectionDomain().getCodeSource().getLocation().toURI());
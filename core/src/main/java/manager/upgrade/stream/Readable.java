@@ -6,6 +6,8 @@ import java.rmi.RemoteException;
 public interface Readable extends Closeable {
 
     byte[] read(int count) throws IOException, RemoteException;
+
+    byte[] read(long offset, int count) throws IOException, RemoteException;
     
     public int available() throws IOException, RemoteException;
     
@@ -2,38 +2,119 @@ package manager.upgrade.stream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Serializable;
+import java.rmi.RemoteException;
+import java.rmi.UnmarshalException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class RemoteInputStream extends InputStream implements Serializable {
 
     private static final long serialVersionUID = 1L;
+    private final static int  MAX_ATTEMPTS = 3;
+    private final static long RETRY_DELAY  = 1000;
 
-    private final Readable source;
+    private final static ExecutorService PREFETCH = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Remote stream prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @FunctionalInterface
+    public interface IReconnector {
+        RemoteInputStream reconnect() throws IOException;
+    }
+
+    // Serialized fields are kept compatible with instances of previous versions
+    private Readable source;
     private byte buffer[];
     private int pos;
     private int exp;
-    private final static int MAX_EXP = 6; // max fetch size = 2^MAX_EXP (64 KB)
+    private String transfer;
+
+    private transient long offset;
+    private transient boolean eof;
+    private transient volatile boolean sequential;
+    private transient Future<byte[]> next;
+    private transient IReconnector reconnector;
 
     public RemoteInputStream(Readable source) {
-        this.source = source;
+        this(source, null);
+    }
+
+    public RemoteInputStream(Readable source, String transfer) {
+        this.source   = source;
+        this.transfer = transfer;
+    }
+
+    public String getTransfer() {
+        return transfer;
+    }
+
+    public void setReconnector(IReconnector reconnector) {
+        this.reconnector = reconnector;
+    }
+
+    public long getPosition() {
+        return offset - (buffer == null ? 0 : buffer.length - pos);
     }
 
     @Override
     public int read() throws IOException {
-        if (pos == -2) return -1;
-        if (buffer == null || pos > buffer.length - 1) {
-            buffer = source.read(1024 *(exp > MAX_EXP ? 1 << MAX_EXP : 1 << exp++)); // max 64 KB fetch
-            pos = 0;
-            if (buffer.length == 0) {
-                pos = -2;
-                return -1;
+        if (!fill()) return -1;
+        return buffer[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int total = 0;
+        while (total < len && fill()) {
+            int count = Math.min(len - total, buffer.length - pos);
+            System.arraycopy(buffer, pos, b, off + total, count);
+            pos   += count;
+            total += count;
+            if (next != null && !next.isDone()) {
+                // Do not wait for the next chunk while there is data to return
+                break;
             }
         }
-        return buffer[pos++] & 0xff;
+        return total == 0 ? -1 : total;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0 || eof) {
+            return 0;
+        }
+        long buffered = buffer == null ? 0 : buffer.length - pos;
+        if (n <= buffered) {
+            pos += n;
+            return n;
+        }
+        if (sequential) {
+            // Sequential source of previous versions has to send skipped data
+            return super.skip(n);
+        }
+        // Skipped data is not transferred, reading continues from the new offset
+        discardPrefetch();
+        buffer = null;
+        pos    = 0;
+        offset = offset + n - buffered;
+        return n;
     }
 
     @Override
     public void close() throws IOException {
+        discardPrefetch();
         source.close();
     }
     
@@ -41,4 +122,142 @@ public class RemoteInputStream extends InputStream implements Serializable {
     public int available() throws IOException {
         return source.available();
     }
+
+    private boolean fill() throws IOException {
+        if (buffer != null && pos < buffer.length) {
+            return true;
+        }
+        if (eof) {
+            return false;
+        }
+        buffer = take();
+        pos = 0;
+        if (buffer.length == 0) {
+            eof = true;
+            return false;
+        }
+        offset += buffer.length;
+        prefetch();
+        return true;
+    }
+
+    private void prefetch() {
+        final Readable readable = source;
+        final long at = offset;
+        next = PREFETCH.submit(() -> read(readable, at));
+    }
+
+    private void discardPrefetch() {
+        // Request in progress is awaited, so the source never serves two reads of this stream at once
+        Future<byte[]> pending = next;
+        next = null;
+        if (pending != null) {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Result is not needed
+            }
+        }
+    }
+
+    private byte[] take() throws IOException {
+        Future<byte[]> pending = next;
+        next = null;
+        if (pending != null) {
+            try {
+                return pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof RemoteException)) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+                // Transport failure, the chunk is requested again
+            }
+        }
+        return fetch(offset);
+    }
+
+    private byte[] fetch(long at) throws IOException {
+        int attempt = 1;
+        while (true) {
+            try {
+                return read(source, at);
+            } catch (RemoteException e) {
+                if (reconnector == null || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                attempt++;
+                try {
+                    reconnect();
+                } catch (RemoteException re) {
+                    // Server is not reachable yet, next attempt reuses the broken source and fails fast
+                }
+            }
+        }
+    }
+
+    private byte[] read(Readable readable, long at) throws IOException {
+        if (!sequential) {
+            try {
+                return readable.read(at, RemoteInputStreamServer.CHUNK_SIZE);
+            } catch (RemoteException e) {
+                if (!isUnsupported(e)) {
+                    throw e;
+                }
+                // Server of previous version, the source has not been read yet
+                sequential = true;
+                skipSequential(readable, at);
+            }
+        }
+        return readable.read(RemoteInputStreamServer.CHUNK_SIZE);
+    }
+
+    private static void skipSequential(Readable readable, long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count) {
+            byte[] data = readable.read((int) Math.min(RemoteInputStreamServer.CHUNK_SIZE, count - skipped));
+            if (data.length == 0) {
+                throw new IOException("Remote stream is shorter than loaded data");
+            }
+            skipped += data.length;
+        }
+    }
+
+    private static boolean isUnsupported(RemoteException e) {
+        // Server wraps the failed dispatch of unknown method into ServerException
+        Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof UnmarshalException && cause.getMessage() != null && cause.getMessage().startsWith("unrecognized method hash")) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private void reconnect() throws IOException {
+        // New stream is opened before the broken one is closed, so the server sees the transfer continued
+        RemoteInputStream stream = reconnector.reconnect();
+        if (stream == null) {
+            throw new IOException("Unable to reopen remote stream");
+        }
+        try {
+            source.close();
+        } catch (IOException e) {
+            // Source is lost, server closes it when the reference expires
+        }
+        source = stream.source;
+        // New source is probed again, sequential one continues by reading the loaded part again
+        sequential = false;
+    }
 }
@@ -2,18 +2,26 @@ package manager.upgrade.stream;
 
 import codex.instance.InstanceCommunicationService;
 import codex.instance.MultihomeRMIClientSocketFactory;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
 import java.util.stream.Collectors;
 
 //https://dzone.com/articles/java-io-streams-and-rmi
-public class RemoteInputStreamServer extends UnicastRemoteObject implements Readable {
+public class RemoteInputStreamServer extends UnicastRemoteObject implements Readable, Unreferenced {
+
+    public static final int CHUNK_SIZE = 256 * 1024;
 
     private static final byte EMPTY_BUFFER[] = new byte[0];
     
     private final InputStream in;
+    private final FileChannel channel;
+    private long position = 0;
 	
     public RemoteInputStreamServer(InputStream in) throws RemoteException {
         super(0, new MultihomeRMIClientSocketFactory(
@@ -22,6 +30,7 @@ public class RemoteInputStreamServer extends UnicastRemoteObject implements Read
                 }).collect(Collectors.toList()).toArray(new String[]{})
         ), null);
         this.in = in;
+        this.channel = in instanceof FileInputStream ? ((FileInputStream) in).getChannel() : null;
     }
     
     public static RemoteInputStream wrap(InputStream in) throws RemoteException {
@@ -29,18 +38,36 @@ public class RemoteInputStreamServer extends UnicastRemoteObject implements Read
     }
     
     @Override
-    public int available() throws IOException, RemoteException {
+    public synchronized int available() throws IOException, RemoteException {
+        if (channel != null) {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - position));
+        }
         return in.available();
     }
 
     @Override
     public byte[] read(int count) throws IOException, RemoteException {
-        final byte buffer[] = new byte[count];
-        final int actualCount = in.read(buffer);
-        if (actualCount == count) {
-            return buffer;
-        } else if (actualCount == -1) {
+        return readChunk(-1, count);
+    }
+
+    @Override
+    public byte[] read(long offset, int count) throws IOException, RemoteException {
+        return readChunk(offset, count);
+    }
+
+    private synchronized byte[] readChunk(long offset, int count) throws IOException {
+        if (offset < 0) {
+            offset = position;
+        }
+        // Every reply gets own array, RMI marshals it after the method has returned
+        final byte buffer[] = new byte[Math.min(count, CHUNK_SIZE)];
+        final int actualCount = channel != null ? readAt(buffer, offset) : readNext(buffer, offset);
+        if (actualCount <= 0) {
             return EMPTY_BUFFER;
+        }
+        position = offset + actualCount;
+        if (actualCount == buffer.length) {
+            return buffer;
         } else {
             final byte data[] = new byte[actualCount];
             System.arraycopy(buffer, 0, data, 0, data.length);
@@ -48,6 +75,38 @@ public class RemoteInputStreamServer extends UnicastRemoteObject implements Read
         }
     }
 
+    private int readAt(byte[] data, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) == -1) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+
+    private int readNext(byte[] data, long offset) throws IOException {
+        if (offset < position) {
+            throw new IOException("Stream can not be rewound to offset " + offset);
+        }
+        while (position < offset) {
+            long skipped = in.skip(offset - position);
+            if (skipped <= 0) {
+                return -1;
+            }
+            position += skipped;
+        }
+        int total = 0;
+        while (total < data.length) {
+            int read = in.read(data, total, data.length - total);
+            if (read == -1) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
     @Override
     public void close() throws IOException, RemoteException {
         try {
@@ -58,4 +117,14 @@ public class RemoteInputStreamServer extends UnicastRemoteObject implements Read
             UnicastRemoteObject.unexportObject(this, true);
         }
     }
+
+    @Override
+    public void unreferenced() {
+        // Client has gone without closing the stream (e.g. the transfer was interrupted and resumed on a new one)
+        try {
+            close();
+        } catch (IOException e) {
+            // Do nothing
+        }
+    }
 }
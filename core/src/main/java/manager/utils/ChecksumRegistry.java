@@ -0,0 +1,95 @@
+package manager.utils;
+
+import codex.log.Logger;
+import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.*;
+
+public final class ChecksumRegistry {
+
+    private final static ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Checksum calculator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final static Map<Path, Checksum> CHECKSUMS = new ConcurrentHashMap<>();
+
+    private static final class Checksum {
+        final long size;
+        final long modified;
+        final CompletableFuture<String> digest = new CompletableFuture<>();
+
+        Checksum(BasicFileAttributes attrs) {
+            this.size     = attrs.size();
+            this.modified = attrs.lastModifiedTime().toMillis();
+        }
+
+        boolean matches(BasicFileAttributes attrs) {
+            return size == attrs.size() && modified == attrs.lastModifiedTime().toMillis();
+        }
+    }
+
+    private ChecksumRegistry() {}
+
+    public static String getChecksum(Path file) throws IOException {
+        try {
+            return lookup(file.toAbsolutePath().normalize()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    public static void precompute(Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        EXECUTOR.submit(() -> {
+            try {
+                lookup(key);
+            } catch (IOException e) {
+                Logger.getLogger().warn("Unable to calculate checksum of ''{0}'': {1}", key, e.getMessage());
+            }
+        });
+    }
+
+    private static CompletableFuture<String> lookup(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        Checksum checksum = new Checksum(attrs);
+        // Concurrent requests of a changed or unknown file wait for a single calculation
+        Checksum actual = CHECKSUMS.compute(file, (key, cached) -> cached != null && cached.matches(attrs) ? cached : checksum);
+        if (actual == checksum) {
+            try {
+                checksum.digest.complete(calculate(file));
+            } catch (IOException e) {
+                CHECKSUMS.remove(file, checksum);
+                checksum.digest.completeExceptionally(e);
+            }
+        }
+        return actual.digest;
+    }
+
+    private static String calculate(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                byte[] buffer = new byte[64 * 1024];
+                while (in.read(buffer) != -1) {
+                    // Digest only
+                }
+            }
+            return DatatypeConverter.printHexBinary(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+package manager.utils;
+
+import codex.log.Logger;
+import org.apache.commons.io.FileDeleteStrategy;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+public final class DirectoryEraser {
+
+    private final static int     PARALLELISM       = Math.max(1, Integer.getInteger("manager.delete.parallelism", 4));
+    private final static long    PROGRESS_INTERVAL = 100;
+    private final static boolean TRASH             = Boolean.getBoolean("manager.delete.trash");
+
+    private final static ExecutorService PURGER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Trash purger");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    @FunctionalInterface
+    public interface IProgressListener {
+        void progress(int percent, Path current);
+    }
+
+    private final Path target;
+    private final BooleanSupplier   cancelled;
+    private final Runnable          checkPaused;
+    private final IProgressListener listener;
+
+    private final AtomicLong deletedBytes = new AtomicLong(0);
+    private final AtomicLong doneRoots    = new AtomicLong(0);
+    private final AtomicLong lastNotified = new AtomicLong(0);
+    private final Object gate = new Object();
+    private boolean held = false;
+    private long expectedBytes;
+    private long totalRoots;
+
+    public DirectoryEraser(Path target, BooleanSupplier cancelled, Runnable checkPaused, IProgressListener listener) {
+        this.target      = target;
+        this.cancelled   = cancelled;
+        this.checkPaused = checkPaused;
+        this.listener    = listener;
+    }
+
+    public static boolean isTrashEnabled() {
+        return TRASH;
+    }
+
+    public static boolean moveToTrash(Path target, Path trashDir) {
+        try {
+            Files.createDirectories(trashDir);
+            Path trashed = trashDir.resolve(target.getFileName() + "-" + UUID.randomUUID());
+            Files.move(target, trashed, StandardCopyOption.ATOMIC_MOVE);
+            PURGER.submit(() -> purge(trashed));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void purgeTrash(Path trashDir) {
+        File[] files = trashDir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                PURGER.submit(() -> purge(file.toPath()));
+            }
+        }
+    }
+
+    private static void purge(Path path) {
+        try {
+            new DirectoryEraser(path, () -> false, () -> {}, (percent, current) -> {}).delete(0);
+        } catch (IOException e) {
+            Logger.getLogger().warn("Unable to purge trash ''{0}'': {1}", path, e.getMessage());
+        }
+    }
+
+    public void delete(long expectedBytes) throws IOException {
+        if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        this.expectedBytes = expectedBytes;
+        if (!Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+            deletePath(target);
+            return;
+        }
+        List<Path> roots = list(target);
+        this.totalRoots = roots.size();
+
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            ForkJoinTask<Void> task = pool.submit(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    List<RecursiveAction> subTasks = new ArrayList<>();
+                    for (Path root : roots) {
+                        subTasks.add(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                deleteTree(root);
+                                doneRoots.incrementAndGet();
+                                notifyProgress(root, true);
+                            }
+                        });
+                    }
+                    invokeAll(subTasks);
+                }
+            });
+            while (!task.isDone()) {
+                try {
+                    task.get(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    checkPaused();
+                }
+            }
+            task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            pool.shutdown();
+        }
+        if (!cancelled.getAsBoolean()) {
+            deletePath(target);
+        }
+    }
+
+    private void deleteTree(Path path) {
+        if (cancelled.getAsBoolean()) {
+            return;
+        }
+        if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            List<RecursiveAction> subTasks = new ArrayList<>();
+            try {
+                for (Path child : list(path)) {
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        subTasks.add(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                deleteTree(child);
+                            }
+                        });
+                    } else {
+                        deleteFile(child);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            RecursiveAction.invokeAll(subTasks);
+            if (!cancelled.getAsBoolean()) {
+                deleteFile(path);
+            }
+        } else {
+            deleteFile(path);
+        }
+    }
+
+    private void checkPaused() {
+        // Task is paused by its own thread only, pool workers wait at the gate meanwhile
+        synchronized (gate) {
+            held = true;
+        }
+        try {
+            checkPaused.run();
+        } finally {
+            synchronized (gate) {
+                held = false;
+                gate.notifyAll();
+            }
+        }
+    }
+
+    private void awaitGate() {
+        synchronized (gate) {
+            while (held && !cancelled.getAsBoolean()) {
+                try {
+                    gate.wait(PROGRESS_INTERVAL);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deleteFile(Path path) {
+        awaitGate();
+        if (cancelled.getAsBoolean()) {
+            return;
+        }
+        try {
+            long size = Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS) ? 0 : Files.readAttributes(
+                    path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+            ).size();
+            deletePath(path);
+            deletedBytes.addAndGet(size);
+            notifyProgress(path, false);
+        } catch (NoSuchFileException e) {
+            // Already deleted
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deletePath(Path path) throws IOException {
+        FileDeleteStrategy.NORMAL.delete(path.toFile());
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            stream.forEach(children::add);
+        }
+        return children;
+    }
+
+    private void notifyProgress(Path current, boolean force) {
+        long now  = System.currentTimeMillis();
+        long last = lastNotified.get();
+        if ((force || now - last >= PROGRESS_INTERVAL) && lastNotified.compareAndSet(last, now)) {
+            int percent;
+            if (expectedBytes > 0) {
+                percent = (int) Math.min(100, deletedBytes.get() * 100 / expectedBytes);
+            } else {
+                percent = totalRoots == 0 ? 100 : (int) (doneRoots.get() * 100 / totalRoots);
+            }
+            listener.progress(percent, current);
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+package manager.utils;
+
+import codex.log.Logger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class LayerStore {
+
+    private final static int    UNKNOWN = -1;
+    private final static String REFS    = ".refs";
+    private final static Object LOCK    = new Object();
+
+    private final static ExecutorService LINKER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Layer store linker");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    public static final class Usage {
+        public final long sharedBytes;
+        public final long exclusiveBytes;
+        public final long unusedBytes;
+        public final long savedBytes;
+
+        Usage(long sharedBytes, long exclusiveBytes, long unusedBytes, long savedBytes) {
+            this.sharedBytes    = sharedBytes;
+            this.exclusiveBytes = exclusiveBytes;
+            this.unusedBytes    = unusedBytes;
+            this.savedBytes     = savedBytes;
+        }
+    }
+
+    private final Path storeDir;
+
+    public LayerStore(Path storeDir) {
+        this.storeDir = storeDir;
+    }
+
+    public void linkLater(Path releaseDir, Collection<String> paths) {
+        // Files are hashed after the launch, release tree stays usable while it is shared
+        List<String> copy = new ArrayList<>(paths);
+        LINKER.submit(() -> {
+            long saved = link(releaseDir, copy);
+            if (saved > 0) {
+                Logger.getLogger().debug("Layer store: {0} bytes of ''{1}'' are shared", saved, releaseDir);
+            }
+        });
+    }
+
+    public long link(Path releaseDir, Collection<String> paths) {
+        long saved = 0;
+        for (String path : paths) {
+            Path file = releaseDir.resolve(path);
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (!attrs.isRegularFile() || attrs.size() == 0) {
+                    continue;
+                }
+                String hash   = hash(file);
+                Path   object = getObject(hash);
+                synchronized (LOCK) {
+                    Files.createDirectories(object.getParent());
+                    try {
+                        // The first copy of the content becomes the store object itself
+                        Files.createLink(object, file);
+                        addReference(object, file);
+                        continue;
+                    } catch (FileAlreadyExistsException e) {
+                        // Content is already stored
+                    } catch (UnsupportedOperationException | FileSystemException e) {
+                        // Hard links are not supported between the release and the store, files stay exclusive
+                        Logger.getLogger().debug("Layer store is not available for ''{0}'': {1}", releaseDir, e.getMessage());
+                        return saved;
+                    }
+                    if (Files.isSameFile(object, file)) {
+                        addReference(object, file);
+                        continue;
+                    }
+                    if (Files.size(object) != attrs.size() || !hash.equals(hash(object))) {
+                        continue;
+                    }
+                    Path temp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+                    try {
+                        Files.createLink(temp, object);
+                        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        addReference(object, file);
+                        saved += attrs.size();
+                    } finally {
+                        Files.deleteIfExists(temp);
+                    }
+                }
+            } catch (FileSystemException e) {
+                // File is in use by the running instance, it stays exclusive
+                Logger.getLogger().debug("Unable to share file ''{0}'': {1}", file, e.getMessage());
+            } catch (IOException e) {
+                Logger.getLogger().warn("Unable to share file ''{0}'': {1}", file, e.getMessage());
+            }
+        }
+        return saved;
+    }
+
+    public static void detach(Path file) throws IOException {
+        // Shared content is never written in place, the file gets own copy before it is repaired
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.copy(file, temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Usage getUsage() {
+        long[] usage = new long[4];
+        walk((object, size, links) -> {
+            if (links == 0) {
+                usage[2] += size;
+            } else if (links == 1 || links == UNKNOWN) {
+                usage[1] += size;
+            } else {
+                usage[0] += size;
+                usage[3] += size * (links - 1);
+            }
+        });
+        return new Usage(usage[0], usage[1], usage[2], usage[3]);
+    }
+
+    public long reclaim() {
+        long[] reclaimed = new long[1];
+        walk((object, size, links) -> {
+            if (links == 0) {
+                try {
+                    Files.delete(object);
+                    Files.deleteIfExists(getReferencesFile(object));
+                    reclaimed[0] += size;
+                } catch (IOException e) {
+                    Logger.getLogger().warn("Unable to remove layer store object ''{0}'': {1}", object, e.getMessage());
+                }
+            }
+        });
+        return reclaimed[0];
+    }
+
+    @FunctionalInterface
+    private interface IObjectVisitor {
+        void visit(Path object, long size, int links);
+    }
+
+    private void walk(IObjectVisitor visitor) {
+        if (!Files.isDirectory(storeDir)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(storeDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!file.getFileName().toString().endsWith(REFS)) {
+                        synchronized (LOCK) {
+                            visitor.visit(file, attrs.size(), getReferences(file));
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            Logger.getLogger().warn("Unable to read layer store ''{0}'': {1}", storeDir, e.getMessage());
+        }
+    }
+
+    private static int getReferences(Path object) {
+        Path refsFile = getReferencesFile(object);
+        if (!Files.exists(refsFile)) {
+            // Object was stored before references were recorded
+            return UNKNOWN;
+        }
+        try {
+            // Every release file still linked to the object is a reference, removed or replaced ones are dropped
+            List<String> refs = Files.readAllLines(refsFile, StandardCharsets.UTF_8);
+            List<String> alive = new LinkedList<>();
+            for (String ref : refs) {
+                Path file = Paths.get(ref);
+                if (Files.exists(file, LinkOption.NOFOLLOW_LINKS) && Files.isSameFile(object, file)) {
+                    alive.add(ref);
+                }
+            }
+            if (alive.size() != refs.size()) {
+                Files.write(refsFile, alive, StandardCharsets.UTF_8);
+            }
+            return alive.size();
+        } catch (IOException e) {
+            return UNKNOWN;
+        }
+    }
+
+    private static void addReference(Path object, Path file) throws IOException {
+        Path refsFile = getReferencesFile(object);
+        String ref = file.toAbsolutePath().normalize().toString();
+        if (!Files.exists(refsFile) || !Files.readAllLines(refsFile, StandardCharsets.UTF_8).contains(ref)) {
+            Files.write(refsFile, Collections.singletonList(ref), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static Path getReferencesFile(Path object) {
+        return object.resolveSibling(object.getFileName() + REFS);
+    }
+
+    private Path getObject(String hash) {
+        return storeDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static String hash(Path path) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+                byte[] buffer = new byte[64 * 1024];
+                while (in.read(buffer) != -1) {
+                    // Digest only
+                }
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
@@ -11,23 +11,21 @@ import codex.task.*;
 import codex.type.IComplexType;
 import codex.utils.ImageUtils;
 import codex.utils.Language;
-import manager.upgrade.stream.RemoteInputStream;
 import javax.swing.*;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
-import javax.xml.bind.DatatypeConverter;
 import java.awt.*;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.FileSystemException;
-import java.nio.file.Files;
-import java.security.MessageDigest;
 import java.text.MessageFormat;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 class DownloadPackages extends EntityGroupCommand<RemotePackageView> {
@@ -111,89 +109,69 @@ class DownloadPackages extends EntityGroupCommand<RemotePackageView> {
                 dialog.setResizable(false);
                 dialog.setVisible(true);
             });
-            for (IPluginLoaderService.RemotePackage remotePackage : packages) {
-                setProgress(
-                        100*(packages.indexOf(remotePackage)) / packages.size(),
-                        MessageFormat.format(Language.get(DownloadPackages.class, "task@progress"), remotePackage.toString())
-                );
-                if (remotePackage.isAvailable()) {
-                    Logger.getLogger().info(
-                            Language.get(DownloadPackages.class, "task@package.start"),
-                            remotePackage.getId(),
-                            remotePackage.getVersion(),
-                            remotePackage.getInstances().size()
+            // Packages are loaded concurrently, results are logged and installed in the order of selection
+            Map<IPluginLoaderService.RemotePackage, Future<List<Instance>>> downloads = new LinkedHashMap<>();
+            packages.stream()
+                    .filter(IPluginLoaderService.RemotePackage::isAvailable)
+                    .forEach(remotePackage -> downloads.put(remotePackage, PackageDownloader.download(remotePackage, getPackageFile(remotePackage))));
+            try {
+                for (IPluginLoaderService.RemotePackage remotePackage : packages) {
+                    setProgress(
+                            100*(packages.indexOf(remotePackage)) / packages.size(),
+                            MessageFormat.format(Language.get(DownloadPackages.class, "task@progress"), remotePackage.toString())
                     );
-                    for (Instance provider : remotePackage.getInstances()) {
-                        try {
-                            Logger.getLogger().info(fillStepResult(
-                                    Language.get(DownloadPackages.class, "task@package.provider"),
-                                    provider.getUser() + provider.getRemoteAddress(),
-                                    null
-                            ));
-                            loadPackageFile(
-                                    (IPluginLoaderService) provider.getService(PluginLoaderService.class),
-                                    remotePackage
-                            );
-                            break;
-                        } catch (Exception e) {
-                            //
-                        }
+                    if (downloads.containsKey(remotePackage)) {
+                        Logger.getLogger().info(
+                                Language.get(DownloadPackages.class, "task@package.start"),
+                                remotePackage.getId(),
+                                remotePackage.getVersion(),
+                                remotePackage.getInstances().size()
+                        );
+                        loadPackageFile(remotePackage, downloads.get(remotePackage));
+                    } else {
+                        Logger.getLogger().info(
+                                Language.get(DownloadPackages.class, "task@package.skip"),
+                                remotePackage.getId(),
+                                remotePackage.getVersion()
+                        );
                     }
-                } else {
-                    Logger.getLogger().info(
-                            Language.get(DownloadPackages.class, "task@package.skip"),
-                            remotePackage.getId(),
-                            remotePackage.getVersion()
-                    );
                 }
+            } finally {
+                downloads.values().forEach(download -> download.cancel(true));
             }
             setProgress(100, Status.FINISHED.getDescription());
             return null;
         }
 
-        private void loadPackageFile(IPluginLoaderService pluginLoader, IPluginLoaderService.RemotePackage remotePackage) throws Exception {
-            MessageDigest localChecksum = MessageDigest.getInstance("MD5");
-            String remoteChecksum = pluginLoader.getPackageFileChecksum(remotePackage.getId(), remotePackage.getVersion());
-
-            File upgradeFile = new File(
+        private File getPackageFile(IPluginLoaderService.RemotePackage remotePackage) {
+            return new File(
                     PluginManager.PLUGIN_DIR,
                     MessageFormat.format("{0}-{1}.jar", remotePackage.getTitle(), remotePackage.getVersion())
             );
+        }
 
-            try (
-                    FileOutputStream outStream = new FileOutputStream(upgradeFile)
-            ) {
-                RemoteInputStream inStream = pluginLoader.getPackageFileStream(remotePackage.getId(), remotePackage.getVersion());
-                byte[] data = new byte[1024];
-                long totalRead = 0;
-                int  bytesRead = inStream.read(data);
-                while (bytesRead != -1) {
-                    totalRead = totalRead + bytesRead;
-                    outStream.write(data, 0, bytesRead);
-                    localChecksum.update(data, 0, bytesRead);
-                    bytesRead = inStream.read(data);
-                }
-                try {
-                    inStream.close();
-                } catch (IOException e) {
-                    // Do nothing
-                }
-                if (DatatypeConverter.printHexBinary(localChecksum.digest()).equals(remoteChecksum)) {
-                    Logger.getLogger().info(fillStepResult(STEP_DOWNLOAD, STEP_SUCCESS, null));
-                    try {
-                        installPackageFile(upgradeFile);
-                    } catch (Exception e) {
-                        if (!upgradeFile.delete()) {
-                            upgradeFile.deleteOnExit();
-                        }
-                    }
-                } else {
-                    throw new Exception(Language.get(DownloadPackages.class, "error@checksum"));
+        private void loadPackageFile(IPluginLoaderService.RemotePackage remotePackage, Future<List<Instance>> download) throws InterruptedException {
+            File upgradeFile = getPackageFile(remotePackage);
+            try {
+                for (Instance provider : download.get()) {
+                    Logger.getLogger().info(fillStepResult(
+                            Language.get(DownloadPackages.class, "task@package.provider"),
+                            provider.getUser() + provider.getRemoteAddress(),
+                            null
+                    ));
                 }
+                Logger.getLogger().info(fillStepResult(STEP_DOWNLOAD, STEP_SUCCESS, null));
+            } catch (ExecutionException e) {
+                // Partially loaded file has been removed by the downloader
+                Logger.getLogger().warn(fillStepResult(STEP_DOWNLOAD, STEP_FAILED, e.getCause()));
+                return;
+            }
+            try {
+                installPackageFile(upgradeFile);
             } catch (Exception e) {
-                Logger.getLogger().warn(fillStepResult(STEP_DOWNLOAD, STEP_FAILED, e));
-                Files.delete(upgradeFile.toPath());
-                throw e;
+                if (!upgradeFile.delete()) {
+                    upgradeFile.deleteOnExit();
+                }
             }
         }
 
@@ -0,0 +1,240 @@
+package plugin;
+
+import codex.instance.Instance;
+import codex.log.Logger;
+import codex.utils.Language;
+import manager.upgrade.stream.RemoteInputStream;
+import manager.upgrade.stream.RemoteInputStreamServer;
+import javax.xml.bind.DatatypeConverter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.*;
+
+final class PackageDownloader {
+
+    private final static int  PACKAGE_THREADS = Math.max(1, Integer.getInteger("manager.plugins.downloadThreads", 4));
+    private final static long MIN_SEGMENT     = 1024 * 1024;
+
+    private final static ExecutorService PACKAGES = Executors.newFixedThreadPool(PACKAGE_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "Package download");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final static ExecutorService SEGMENTS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Package segment download");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Source {
+        final Instance instance;
+        final IPluginLoaderService pluginLoader;
+
+        Source(Instance instance, IPluginLoaderService pluginLoader) {
+            this.instance     = instance;
+            this.pluginLoader = pluginLoader;
+        }
+    }
+
+    private static final class Segment {
+        final long start;
+        final long length;
+        boolean done = false;
+
+        Segment(long start, long length) {
+            this.start  = start;
+            this.length = length;
+        }
+    }
+
+    private final IPluginLoaderService.RemotePackage remotePackage;
+    private final File targetFile;
+    private final List<Source>  sources = new ArrayList<>();
+    private final Set<Instance> used = new LinkedHashSet<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private final MessageDigest digest;
+    private FileChannel channel;
+    private int  digested = 0;
+
+    private PackageDownloader(IPluginLoaderService.RemotePackage remotePackage, File targetFile) throws NoSuchAlgorithmException {
+        this.remotePackage = remotePackage;
+        this.targetFile    = targetFile;
+        this.digest        = MessageDigest.getInstance("MD5");
+    }
+
+    static Future<List<Instance>> download(IPluginLoaderService.RemotePackage remotePackage, File targetFile) {
+        return PACKAGES.submit(() -> new PackageDownloader(remotePackage, targetFile).download());
+    }
+
+    private List<Instance> download() throws Exception {
+        String checksum = resolveSources();
+        long size = getSize();
+
+        // Each provider publishing the same checksum serves own range of the file
+        int count = (int) Math.max(1, Math.min(sources.size(), size / MIN_SEGMENT));
+        long length = size / count;
+        for (int i = 0; i < count; i++) {
+            segments.add(new Segment(i * length, i == count - 1 ? size - i * length : length));
+        }
+        // Package is loaded aside and appears in the plugins directory only once its checksum matches
+        File tempFile = File.createTempFile(targetFile.getName(), ".tmp", targetFile.getParentFile());
+        try {
+            try (RandomAccessFile file = new RandomAccessFile(tempFile, "rw")) {
+                file.setLength(size);
+                channel = file.getChannel();
+
+                List<Future<?>> futures = new LinkedList<>();
+                for (int i = 0; i < count; i++) {
+                    final int index = i;
+                    futures.add(SEGMENTS.submit(() -> {
+                        loadSegment(index);
+                        return null;
+                    }));
+                }
+                try {
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                } finally {
+                    futures.forEach(future -> future.cancel(true));
+                }
+            }
+            if (!DatatypeConverter.printHexBinary(digest.digest()).equals(checksum)) {
+                throw new IOException(Language.get(DownloadPackages.class, "error@checksum"));
+            }
+            Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            if (tempFile.exists() && !tempFile.delete()) {
+                tempFile.deleteOnExit();
+            }
+        }
+        synchronized (used) {
+            return new LinkedList<>(used);
+        }
+    }
+
+    private String resolveSources() throws IOException {
+        String checksum = null;
+        for (Instance instance : remotePackage.getInstances()) {
+            try {
+                IPluginLoaderService pluginLoader = (IPluginLoaderService) instance.getService(PluginLoaderService.class);
+                String remoteChecksum = pluginLoader.getPackageFileChecksum(remotePackage.getId(), remotePackage.getVersion());
+                if (checksum == null) {
+                    checksum = remoteChecksum;
+                }
+                if (checksum.equals(remoteChecksum)) {
+                    sources.add(new Source(instance, pluginLoader));
+                } else {
+                    Logger.getLogger().debug("PXE: Provider ''{0}'' of package ''{1}'' has different checksum", instance, remotePackage);
+                }
+            } catch (Exception e) {
+                Logger.getLogger().debug("PXE: Provider ''{0}'' of package ''{1}'' is not available: {2}", instance, remotePackage, e.getMessage());
+            }
+        }
+        if (sources.isEmpty()) {
+            throw new IOException(MessageFormat.format("No available providers of package ''{0}''", remotePackage));
+        }
+        return checksum;
+    }
+
+    private long getSize() throws IOException {
+        IOException error = null;
+        for (Source source : sources) {
+            try (RemoteInputStream inStream = openStream(source)) {
+                return inStream.available();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        throw error;
+    }
+
+    private RemoteInputStream openStream(Source source) throws IOException {
+        RemoteInputStream inStream = source.pluginLoader.getPackageFileStream(remotePackage.getId(), remotePackage.getVersion());
+        inStream.setReconnector(() -> source.pluginLoader.getPackageFileStream(remotePackage.getId(), remotePackage.getVersion()));
+        return inStream;
+    }
+
+    private void loadSegment(int index) throws IOException {
+        Segment segment = segments.get(index);
+        byte[] data = new byte[RemoteInputStreamServer.CHUNK_SIZE];
+        long loaded = 0;
+        IOException error = null;
+        // Segment is continued from the next provider if the assigned one fails
+        for (int attempt = 0; attempt < sources.size() && loaded < segment.length; attempt++) {
+            Source source = sources.get((index + attempt) % sources.size());
+            try (RemoteInputStream inStream = openStream(source)) {
+                inStream.skip(segment.start + loaded);
+                synchronized (used) {
+                    used.add(source.instance);
+                }
+                while (loaded < segment.length) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException();
+                    }
+                    int bytesRead = inStream.read(data, 0, (int) Math.min(data.length, segment.length - loaded));
+                    if (bytesRead == -1) {
+                        throw new IOException(MessageFormat.format("Unexpected end of package ''{0}''", remotePackage));
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(data, 0, bytesRead);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer, segment.start + loaded + buffer.position());
+                    }
+                    loaded += bytesRead;
+                    if (index == 0) {
+                        // First segment is digested while written, others are not touched until it completes
+                        digest.update(data, 0, bytesRead);
+                    }
+                }
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                Logger.getLogger().debug("PXE: Provider ''{0}'' failed to send package ''{1}'': {2}", source.instance, remotePackage, e.getMessage());
+                error = e;
+            }
+        }
+        if (loaded < segment.length) {
+            throw error != null ? error : new IOException(MessageFormat.format("Unable to load package ''{0}''", remotePackage));
+        }
+        complete(index);
+    }
+
+    private void complete(int index) throws IOException {
+        synchronized (digest) {
+            segments.get(index).done = true;
+            if (index == 0) {
+                digested = 1;
+            }
+            // Later segments are digested from the written file in order, once all previous ones are complete
+            while (digested > 0 && digested < segments.size() && segments.get(digested).done) {
+                Segment segment = segments.get(digested);
+                ByteBuffer buffer = ByteBuffer.allocate(RemoteInputStreamServer.CHUNK_SIZE);
+                long position = segment.start;
+                while (position < segment.start + segment.length) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), segment.start + segment.length - position));
+                    int read = channel.read(buffer, position);
+                    if (read == -1) {
+                        break;
+                    }
+                    digest.update(buffer.array(), 0, read);
+                    position += read;
+                }
+                digested++;
+            }
+        }
+    }
+
+}
@@ -14,6 +14,7 @@ import codex.service.ServiceRegistry;
 import codex.type.*;
 import codex.utils.ImageUtils;
 import codex.utils.Language;
+import manager.utils.ChecksumRegistry;
 import javax.swing.*;
 import java.io.IOException;
 import java.lang.reflect.Field;
@@ -124,11 +125,18 @@ public class PackageView extends Catalog {
             }
         }
         setIcon(getStatusIcon());
+        if (pluginPackage != null && isPublished()) {
+            ChecksumRegistry.precompute(pluginPackage.jarFilePath);
+        }
     }
 
     void setPublished(boolean published) throws Exception {
         model.setValue(PROP_PUBLIC, published);
         model.commit(true);
+        if (published) {
+            // Instances notified below request the checksum first
+            ChecksumRegistry.precompute(packageSupplier.get().jarFilePath);
+        }
         ICS.getInstances().forEach(instance -> {
             try {
                 final IPluginLoaderService pluginLoader = (IPluginLoaderService) instance.getService(PluginLoaderService.class);
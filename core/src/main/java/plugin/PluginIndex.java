@@ -0,0 +1,194 @@
+package plugin;
+
+import codex.log.Logger;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.ZipEntry;
+
+final class PluginIndex {
+
+    private final static String FILE    = ".plugins.index";
+    private final static int    VERSION = 1;
+    private final static long   SEAL    = 0x504C5547494E4958L;
+    private final static String PLUGGABLE_INDEX = "META-INF/annotations/".concat(Pluggable.class.getCanonicalName());
+
+    static final class Entry {
+        final String jar;
+        final long   size;
+        final long   modified;
+        final String vendor, title, version, author;
+        final boolean build;
+        final List<String> classes;
+
+        private Entry(String jar, long size, long modified, String vendor, String title, String version, String author, boolean build, List<String> classes) {
+            this.jar      = jar;
+            this.size     = size;
+            this.modified = modified;
+            this.vendor   = vendor;
+            this.title    = title;
+            this.version  = version;
+            this.author   = author;
+            this.build    = build;
+            this.classes  = classes;
+        }
+
+        private boolean matches(BasicFileAttributes attrs) {
+            return size == attrs.size() && modified == attrs.lastModifiedTime().toMillis();
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    private PluginIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    static PluginIndex read(File pluginDir) {
+        Path file = pluginDir.toPath().resolve(FILE);
+        Map<String, Entry> entries = new HashMap<>();
+        if (!Files.exists(file)) {
+            return new PluginIndex(entries);
+        }
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != VERSION) {
+                return new PluginIndex(entries);
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String jar      = in.readUTF();
+                long   length   = in.readLong();
+                long   modified = in.readLong();
+                String vendor   = readString(in);
+                String title    = readString(in);
+                String version  = readString(in);
+                String author   = readString(in);
+                boolean build   = in.readBoolean();
+                int count = in.readInt();
+                List<String> classes = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    classes.add(in.readUTF());
+                }
+                entries.put(jar, new Entry(jar, length, modified, vendor, title, version, author, build, classes));
+            }
+            long checksum = crc.getValue();
+            if (in.readLong() != SEAL || in.readLong() != checksum) {
+                entries.clear();
+            }
+        } catch (IOException e) {
+            Logger.getLogger().debug("PXE: Plugin index is not readable: {0}", e.getMessage());
+            entries.clear();
+        }
+        return new PluginIndex(entries);
+    }
+
+    static void write(File pluginDir, Collection<Entry> entries) {
+        Path dir = pluginDir.toPath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(dir, FILE, ".tmp");
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                DataOutputStream checked = new DataOutputStream(new CheckedOutputStream(out, crc));
+                checked.writeInt(VERSION);
+                checked.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    checked.writeUTF(entry.jar);
+                    checked.writeLong(entry.size);
+                    checked.writeLong(entry.modified);
+                    writeString(checked, entry.vendor);
+                    writeString(checked, entry.title);
+                    writeString(checked, entry.version);
+                    writeString(checked, entry.author);
+                    checked.writeBoolean(entry.build);
+                    checked.writeInt(entry.classes.size());
+                    for (String className : entry.classes) {
+                        checked.writeUTF(className);
+                    }
+                }
+                checked.flush();
+                out.writeLong(SEAL);
+                out.writeLong(crc.getValue());
+            }
+            Files.move(temp, dir.resolve(FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.getLogger().warn("Unable to save plugin index: {0}", e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // Do nothing
+                }
+            }
+        }
+    }
+
+    Entry get(File jarFile) throws IOException {
+        Entry entry = entries.get(jarFile.getName());
+        if (entry != null && entry.matches(Files.readAttributes(jarFile.toPath(), BasicFileAttributes.class))) {
+            return entry;
+        }
+        return scan(jarFile);
+    }
+
+    static Entry scan(File jarFile) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(jarFile.toPath(), BasicFileAttributes.class);
+        // Manifest and plugin class list are read from the archive directly, classes are not loaded until registration
+        try (JarFile jar = new JarFile(jarFile, false)) {
+            Manifest manifest = jar.getManifest();
+            if (manifest == null) {
+                throw new IOException(MessageFormat.format("Manifest not found in ''{0}''", jarFile));
+            }
+            Attributes attributes = manifest.getMainAttributes();
+            List<String> classes = new LinkedList<>();
+            ZipEntry index = jar.getEntry(PLUGGABLE_INDEX);
+            if (index != null) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(jar.getInputStream(index), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            classes.add(line);
+                        }
+                    }
+                }
+            }
+            return new Entry(
+                    jarFile.getName(),
+                    attrs.size(),
+                    attrs.lastModifiedTime().toMillis(),
+                    attributes.getValue(Attributes.Name.IMPLEMENTATION_VENDOR_ID),
+                    attributes.getValue(Attributes.Name.IMPLEMENTATION_TITLE),
+                    attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION),
+                    attributes.getValue("Built-By"),
+                    "true".equals(attributes.getValue("Build")),
+                    classes
+            );
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+}
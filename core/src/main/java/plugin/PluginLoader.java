@@ -29,9 +29,18 @@ class PluginLoader {
         if (jars != null) {
             BinaryOperator<PluginPackage> maxVersion = BinaryOperator.maxBy(PluginPackage.PKG_COMPARATOR);
 
+            // Unchanged jars are taken from the index, changed ones are scanned concurrently
+            PluginIndex index = PluginIndex.read(pluginDir);
+            Map<File, PluginIndex.Entry> entries = Arrays.stream(jars).parallel()
+                    .map(jarFile -> new AbstractMap.SimpleEntry<>(jarFile, readIndexEntry(index, jarFile)))
+                    .filter(entry -> entry.getValue() != null)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (entry1, entry2) -> entry1, LinkedHashMap::new));
+            PluginIndex.write(pluginDir, entries.values());
+
             registerPluginPackages(
-                    Arrays.stream(jars)
-                            .map(this::loadPluginPackage)
+                    entries.entrySet().stream()
+                            .filter(entry -> !entry.getValue().classes.isEmpty())
+                            .map(entry -> loadPluginPackage(entry.getKey(), entry.getValue()))
                             .filter(pluginPackage -> pluginPackage != null && pluginPackage.size() > 0)
                             .collect(Collectors.toMap(
                                     PluginPackage::hashCode,
@@ -65,9 +74,17 @@ class PluginLoader {
         }
     }
 
-    private PluginPackage loadPluginPackage(File jarFile) {
+    private PluginIndex.Entry readIndexEntry(PluginIndex index, File jarFile) {
+        try {
+            return index.get(jarFile);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private PluginPackage loadPluginPackage(File jarFile, PluginIndex.Entry entry) {
         try {
-            return new PluginPackage(jarFile);
+            return new PluginPackage(jarFile, entry);
         } catch (IOException e) {
             return null;
         }
@@ -6,15 +6,12 @@ import codex.service.AbstractRemoteService;
 import codex.utils.LocaleContextHolder;
 import manager.upgrade.stream.RemoteInputStream;
 import manager.upgrade.stream.RemoteInputStreamServer;
-import javax.xml.bind.DatatypeConverter;
+import manager.utils.ChecksumRegistry;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
 import java.rmi.RemoteException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -45,10 +42,8 @@ public final class PluginLoaderService extends AbstractRemoteService<PluginLoade
         PluginPackage pluginPackage = PluginManager.getInstance().getPluginLoader().getPackageById(pluginId);
         if (pluginPackage.getVersion().equals(pluginVersion)) {
             try {
-                byte[] b = Files.readAllBytes(pluginPackage.jarFilePath);
-                byte[] hash = MessageDigest.getInstance("MD5").digest(b);
-                return DatatypeConverter.printHexBinary(hash);
-            } catch (IOException | NoSuchAlgorithmException e) {
+                return ChecksumRegistry.getChecksum(pluginPackage.jarFilePath);
+            } catch (IOException e) {
                 throw new RemoteException("Unable to get package checksum", e);
             }
         } else {
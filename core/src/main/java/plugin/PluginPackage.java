@@ -1,7 +1,6 @@
 package plugin;
 
 import codex.log.Logger;
-import org.atteo.classindex.ClassIndex;
 import java.io.*;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -14,7 +13,6 @@ import java.util.*;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 public final class PluginPackage implements Closeable {
 
@@ -52,21 +50,24 @@ public final class PluginPackage implements Closeable {
     private final Boolean build;
 
     PluginPackage(File jarFile) throws IOException {
+        this(jarFile, PluginIndex.scan(jarFile));
+    }
+
+    PluginPackage(File jarFile, PluginIndex.Entry indexEntry) throws IOException {
         this.jarFilePath = jarFile.toPath();
 
-        Attributes attributes = getAttributes(jarFile);
-        vendor  = attributes.getValue(Attributes.Name.IMPLEMENTATION_VENDOR_ID);
-        title   = attributes.getValue(Attributes.Name.IMPLEMENTATION_TITLE);
-        version = attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION);
-        author  = attributes.getValue("Built-By");
-        build   = attributes.getValue("Build").equals("true");
+        vendor  = indexEntry.vendor;
+        title   = indexEntry.title;
+        version = indexEntry.version;
+        author  = indexEntry.author;
+        build   = indexEntry.build;
 
         URLConnection conn = jarFile.toURI().toURL().openConnection();
         conn.setUseCaches(false);
         conn.setDefaultUseCaches(false);
 
         classLoader = new URLClassLoader(new URL[]{ conn.getURL() });
-        pluginList = loadPlugins(conn.getURL());
+        pluginList = loadPlugins(indexEntry.classes);
     }
 
     String getId() {
@@ -101,8 +102,8 @@ public final class PluginPackage implements Closeable {
         return pluginList.size();
     }
 
-    private List<PluginHandler> loadPlugins(URL url) {
-        return StreamSupport.stream(ClassIndex.getAnnotatedNames(Pluggable.class, new URLClassLoader(new URL[]{ url }, null)).spliterator(), false)
+    private List<PluginHandler> loadPlugins(List<String> classNames) {
+        return classNames.stream()
                 .map(className -> {
                     try {
                         Class<?> pluginClass = classLoader.loadClass(className);
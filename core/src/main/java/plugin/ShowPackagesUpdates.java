@@ -27,8 +27,8 @@ import java.rmi.server.RemoteServer;
 import java.rmi.server.ServerNotActiveException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 final class ShowPackagesUpdates extends EntityCommand<PluginCatalog> implements IInstanceListener, IPluginLoaderService.IPublicationListener {
 
@@ -51,7 +51,17 @@ final class ShowPackagesUpdates extends EntityCommand<PluginCatalog> implements
         }
     };
 
-    private final List<IPluginLoaderService.RemotePackage> remotePackages = new LinkedList<>();
+    private final static long DISCOVERY_TIMEOUT = TimeUnit.SECONDS.toMillis(Long.getLong("manager.plugins.discoveryTimeout", 15));
+    private final static ExecutorService DISCOVERY = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Remote packages discovery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Package registry and update tree are only accessed from EDT
+    private final Map<String, Map<String, IPluginLoaderService.RemotePackage>> remotePackages = new HashMap<>();
+    private final Map<String, RemotePackageView> updates = new HashMap<>();
+    private Map<String, String> localVersions = new HashMap<>();
     private final NodeTreeModel treeModel = new NodeTreeModel(new RemotePackageView(null, null) {
         @Override
         public Class<? extends Entity> getChildClass() {
@@ -79,47 +89,15 @@ final class ShowPackagesUpdates extends EntityCommand<PluginCatalog> implements
             if (pluginCatalogs.isEmpty()) {
                 return new CommandStatus(false);
             } else {
-                List<PluginPackage> localPackages = PluginManager.getInstance().getPluginLoader().getPackages();
-                synchronized (remotePackages) {
-                    List<IPluginLoaderService.RemotePackage> updates = remotePackages.stream()
-                            .filter(remotePackage -> {
-                                return
-                                        localPackages.stream().noneMatch(localPackage -> localPackage.getId().equals(remotePackage.getId())) ||
-                                        localPackages.stream().anyMatch(localPackage -> {
-                                            return
-                                                    localPackage.getId().equals(remotePackage.getId()) &&
-                                                    VER_COMPARATOR.compare(remotePackage.getVersion(), localPackage.getVersion()) > 0;
-                                        });
-                            })
-                            .collect(Collectors.toList());
-                    for (INode node: treeModel) {
-                        RemotePackageView pkgView = (RemotePackageView) node;
-                        if (pkgView != treeModel.getRoot()) {
-                            if (!updates.contains(pkgView.remotePackage)) {
-                                ((INode) treeModel.getRoot()).delete(pkgView);
-                            } else {
-                                pkgView.refreshUpgradeInfo();
-                            }
-                        }
-                    }
-                    updates.forEach(remotePackage -> {
-                        boolean nodeNotExists = StreamSupport.stream(treeModel.spliterator(), false).noneMatch(node ->
-                                treeModel.getRoot() != node &&
-                                ((RemotePackageView) node).remotePackage.equals(remotePackage)
-                        );
-                        if (nodeNotExists) {
-                            ((INode) treeModel.getRoot()).insert(new RemotePackageView(remotePackage));
-                        }
-                    });
-                    return new CommandStatus(
-                            updates.size() > 0,
-                            updates.size() == 0 ? CMD_ICON : ImageUtils.combine(
-                                        CMD_ICON,
-                                        ImageUtils.createBadge(String.valueOf(updates.size()), Color.decode("#DE5347"), Color.WHITE),
-                                        SwingConstants.SOUTH_EAST
-                            )
-                    );
-                }
+                refreshUpdates(Collections.emptySet());
+                return new CommandStatus(
+                        updates.size() > 0,
+                        updates.size() == 0 ? CMD_ICON : ImageUtils.combine(
+                                    CMD_ICON,
+                                    ImageUtils.createBadge(String.valueOf(updates.size()), Color.decode("#DE5347"), Color.WHITE),
+                                    SwingConstants.SOUTH_EAST
+                        )
+                );
             }
         };
     }
@@ -174,14 +152,28 @@ final class ShowPackagesUpdates extends EntityCommand<PluginCatalog> implements
 
     @Override
     public final void instanceLinked(Instance instance) {
-        SwingUtilities.invokeLater(() -> {
-            try {
+        final Locale locale = LocaleContextHolder.getLocale();
+        DISCOVERY.submit(() -> {
+            Future<List<IPluginLoaderService.RemotePackage>> request = DISCOVERY.submit(() -> {
                 final IPluginLoaderService pluginLoader = (IPluginLoaderService) instance.getService(PluginLoaderService.class);
-                registerPackages(instance, pluginLoader.getPublishedPackages(LocaleContextHolder.getLocale()));
-            } catch (NotBoundException e) {
-                //
-            } catch (RemoteException e) {
-                Logger.getLogger().warn("Failed remote service ''{0}'' call to instance ''{1}''", PluginLoaderService.class, instance);
+                return pluginLoader.getPublishedPackages(locale);
+            });
+            try {
+                List<IPluginLoaderService.RemotePackage> packages = request.get(DISCOVERY_TIMEOUT, TimeUnit.MILLISECONDS);
+                SwingUtilities.invokeLater(() -> {
+                    if (ICS.getInstances().contains(instance)) {
+                        registerPackages(instance, packages);
+                    }
+                });
+            } catch (TimeoutException e) {
+                request.cancel(true);
+                Logger.getLogger().warn("Remote service ''{0}'' of instance ''{1}'' did not respond in {2} ms", PluginLoaderService.class, instance, String.valueOf(DISCOVERY_TIMEOUT));
+            } catch (InterruptedException e) {
+                request.cancel(true);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RemoteException) {
+                    Logger.getLogger().warn("Failed remote service ''{0}'' call to instance ''{1}''", PluginLoaderService.class, instance);
+                }
             }
         });
     }
@@ -199,11 +191,13 @@ final class ShowPackagesUpdates extends EntityCommand<PluginCatalog> implements
             String remoteIP = RemoteServer.getClientHost();
             ICS.getInstances().forEach(instance -> {
                 if (instance.getRemoteAddress().getAddress().getHostAddress().equals(remoteIP)) {
-                    if (published) {
-                        registerPackages(instance, Collections.singletonList(remotePackage));
-                    } else {
-                        unregisterPackages(instance, Collections.singletonList(remotePackage));
-                    }
+                    SwingUtilities.invokeLater(() -> {
+                        if (published) {
+                            registerPackages(instance, Collections.singletonList(remotePackage));
+                        } else {
+                            unregisterPackages(instance, Collections.singletonList(remotePackage));
+                        }
+                    });
                 }
             });
         } catch (ServerNotActiveException e) {
@@ -212,28 +206,68 @@ final class ShowPackagesUpdates extends EntityCommand<PluginCatalog> implements
     }
 
     private void registerPackages(Instance instance, List<IPluginLoaderService.RemotePackage> packages) {
-        synchronized (remotePackages) {
-            packages.forEach(remotePackage -> {
-                if (!remotePackages.contains(remotePackage)) {
-                    remotePackages.add(remotePackage);
-                }
-                remotePackages.get(remotePackages.indexOf(remotePackage)).addInstance(instance);
-            });
-            activate();
-        }
+        Set<String> changed = new HashSet<>();
+        packages.forEach(remotePackage -> {
+            remotePackages.computeIfAbsent(remotePackage.getId(), id -> new HashMap<>())
+                    .computeIfAbsent(remotePackage.getVersion(), version -> remotePackage)
+                    .addInstance(instance);
+            changed.add(remotePackage.getId());
+        });
+        refreshUpdates(changed);
+        activate();
     }
 
     private void unregisterPackages(Instance instance, List<IPluginLoaderService.RemotePackage> packages) {
-        synchronized (remotePackages) {
-            remotePackages.removeIf(remotePackage -> {
+        Set<String> changed = new HashSet<>();
+        remotePackages.entrySet().removeIf(entry -> {
+            entry.getValue().values().removeIf(remotePackage -> {
                 if (packages == null || packages.contains(remotePackage)) {
                     remotePackage.removeInstance(instance);
+                    changed.add(entry.getKey());
                     return !remotePackage.isAvailable();
-                } else  {
-                    return false;
                 }
+                return false;
             });
-            activate();
+            return entry.getValue().isEmpty();
+        });
+        refreshUpdates(changed);
+        activate();
+    }
+
+    private void refreshUpdates(Set<String> packageIds) {
+        Map<String, String> currentVersions = PluginManager.getInstance().getPluginLoader().getPackages().stream()
+                .collect(Collectors.toMap(PluginPackage::getId, PluginPackage::getVersion, (ver1, ver2) -> ver1));
+        Set<String> changed = new HashSet<>(packageIds);
+        if (!currentVersions.equals(localVersions)) {
+            // Installed or removed local package changes availability of its updates only
+            changed.addAll(currentVersions.keySet());
+            changed.addAll(localVersions.keySet());
+            changed.removeIf(id -> Objects.equals(currentVersions.get(id), localVersions.get(id)) && !packageIds.contains(id));
+            localVersions = currentVersions;
+        }
+        INode root = (INode) treeModel.getRoot();
+        for (String id : changed) {
+            String localVersion = localVersions.get(id);
+            IPluginLoaderService.RemotePackage update = remotePackages.getOrDefault(id, Collections.emptyMap()).values().stream()
+                    .filter(remotePackage -> localVersion == null || VER_COMPARATOR.compare(remotePackage.getVersion(), localVersion) > 0)
+                    .max((pkg1, pkg2) -> VER_COMPARATOR.compare(pkg1.getVersion(), pkg2.getVersion()))
+                    .orElse(null);
+
+            RemotePackageView pkgView = updates.get(id);
+            if (pkgView != null && (update == null || pkgView.remotePackage != update)) {
+                updates.remove(id);
+                root.delete(pkgView);
+                pkgView = null;
+            }
+            if (update != null) {
+                if (pkgView == null) {
+                    pkgView = new RemotePackageView(update);
+                    updates.put(id, pkgView);
+                    root.insert(pkgView);
+                } else {
+                    pkgView.refreshUpgradeInfo();
+                }
+            }
         }
     }
 }
@@ -2,7 +2,9 @@ package plugin;
 
 import codex.database.IDatabaseAccessService;
 import codex.database.OracleAccessService;
+import codex.log.Logger;
 import codex.service.ServiceRegistry;
+import codex.model.Entity;
 import codex.type.EntityRef;
 import codex.utils.ImageUtils;
 import codex.utils.Language;
@@ -10,15 +12,17 @@ import manager.nodes.Database;
 import manager.nodes.Environment;
 import org.atteo.classindex.IndexSubclasses;
 import javax.swing.*;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.Locale;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @IndexSubclasses
 @Unit(serviceUri = "")
 public class AbstractInstanceUnit extends AccessPoint {
 
     private final static IDatabaseAccessService DAS = (IDatabaseAccessService) ServiceRegistry.getInstance().lookupService(OracleAccessService.class);
+    private final static Map<String, AccessPointSettings> PRELOADED = new ConcurrentHashMap<>();
 
     public AbstractInstanceUnit(EntityRef owner, String title) {
         super(owner, ImageUtils.getByPath("/images/unit.png"), title);
@@ -36,8 +40,108 @@ public class AbstractInstanceUnit extends AccessPoint {
         return Language.get(AbstractInstanceUnit.class, "save", Locale.US);
     }
 
+    static <T extends AbstractInstanceUnit> T newInstance(Class<T> unitClass, EntityRef owner, String PID, AccessPointSettings settings) {
+        // Settings loaded by bulk query are passed to the constructor instead of querying every unit
+        String key = unitClass.getCanonicalName() + "#" + PID;
+        PRELOADED.put(key, settings);
+        try {
+            return Entity.newInstance(unitClass, owner, PID);
+        } finally {
+            PRELOADED.remove(key);
+        }
+    }
+
+    static final class SaveSession implements AutoCloseable {
+        // Environments on the same database are saved through one connection
+        private final Map<String, Connection> connections = new LinkedHashMap<>();
+
+        private Connection getConnection(Database database) throws SQLException {
+            String url  = "jdbc:oracle:thin:@//"+database.getDatabaseUrl(true);
+            String user = database.getDatabaseUser(true);
+            Connection connection = connections.get(url + "#" + user);
+            if (connection == null) {
+                connection = DriverManager.getConnection(url, user, database.getDatabasePassword(true));
+                connections.put(url + "#" + user, connection);
+                connection.setAutoCommit(false);
+            }
+            return connection;
+        }
+
+        @Override
+        public void close() {
+            connections.values().forEach(connection -> {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    Logger.getLogger().warn("Unable to close database connection: {0}", e.getMessage());
+                }
+            });
+            connections.clear();
+        }
+    }
+
+    static List<AbstractInstanceUnit> saveSettings(SaveSession session, Environment environment, List<AbstractInstanceUnit> units) throws SQLException {
+        Map<String, List<AbstractInstanceUnit>> unitsByQuery = units.stream().collect(Collectors.groupingBy(
+                AbstractInstanceUnit::saveSettingsQuery, LinkedHashMap::new, Collectors.toList()
+        ));
+        List<AbstractInstanceUnit> conflicts = new LinkedList<>();
+        Connection connection = session.getConnection(environment.getDataBase(true));
+        try {
+            for (Map.Entry<String, List<AbstractInstanceUnit>> entry : unitsByQuery.entrySet()) {
+                List<AbstractInstanceUnit> queryUnits = entry.getValue();
+                try (PreparedStatement statement = connection.prepareStatement(entry.getKey())) {
+                    for (AbstractInstanceUnit unit : queryUnits) {
+                        setParameters(statement, unit);
+                        statement.addBatch();
+                    }
+                    Savepoint savepoint = connection.setSavepoint();
+                    int[] counts = statement.executeBatch();
+                    if (counts.length != queryUnits.size() || Arrays.stream(counts).anyMatch(count -> count == Statement.SUCCESS_NO_INFO)) {
+                        // Driver does not report row counts of a batch, rows are updated one by one to find conflicts
+                        connection.rollback(savepoint);
+                        counts = new int[queryUnits.size()];
+                        for (int i = 0; i < counts.length; i++) {
+                            setParameters(statement, queryUnits.get(i));
+                            counts[i] = statement.executeUpdate();
+                        }
+                    }
+                    for (int i = 0; i < counts.length; i++) {
+                        // Address has been changed by someone else since it was loaded
+                        if (counts[i] == 0) {
+                            conflicts.add(queryUnits.get(i));
+                        }
+                    }
+                }
+            }
+            if (conflicts.isEmpty()) {
+                connection.commit();
+                units.forEach(unit -> unit.setSavedAddress(unit.getAddress()));
+            } else {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        }
+        return conflicts;
+    }
+
+    private static void setParameters(PreparedStatement statement, AbstractInstanceUnit unit) throws SQLException {
+        statement.setString(1, unit.getAddress());
+        statement.setInt(2, Integer.valueOf(unit.getPID()));
+        statement.setString(3, unit.getSavedAddress());
+    }
+
     @Override
     protected AccessPointSettings loadSettings() {
+        AccessPointSettings preloaded = PRELOADED.get(getClass().getCanonicalName() + "#" + getPID());
+        if (preloaded != null) {
+            return preloaded;
+        }
         if (getOwner() != null) {
             Database database = getEnvironment().getDataBase(true);
             try (ResultSet rs = DAS.select(
@@ -67,8 +171,10 @@ public class AbstractInstanceUnit extends AccessPoint {
                     database.getConnectionID(false),
                     saveSettingsQuery(),
                     getAddress(),
-                    Integer.valueOf(getPID())
+                    Integer.valueOf(getPID()),
+                    getSavedAddress()
             );
+            setSavedAddress(getAddress());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -15,6 +15,8 @@ public class AccessPoint extends Catalog {
     final static String PROP_ADDR = "address";
     final static String PROP_USED = "used";
 
+    private String savedAddress;
+
     public AccessPoint(EntityRef owner, String title) {
         this(owner, null, title);
     }
@@ -22,6 +24,7 @@ public class AccessPoint extends Catalog {
     public AccessPoint(EntityRef owner, ImageIcon icon, String title) {
         super(owner, icon, title, null);
         AccessPointSettings settings = loadSettings();
+        savedAddress = settings.address;
         if (settings.title != null) {
             setTitle(MessageFormat.format("{0}) {1}", getPID(), settings.title));
         }
@@ -60,6 +63,14 @@ public class AccessPoint extends Catalog {
         return (String) model.getUnsavedValue(PROP_ADDR);
     }
 
+    final String getSavedAddress() {
+        return savedAddress;
+    }
+
+    final void setSavedAddress(String address) {
+        savedAddress = address;
+    }
+
     final Boolean getUsed() {
         return (Boolean) model.getValue(PROP_USED);
     }
@@ -68,7 +79,7 @@ public class AccessPoint extends Catalog {
         model.setValue(PROP_ADDR, address);
     }
 
-    public class AccessPointSettings {
+    public static class AccessPointSettings {
         String  title;
         String  address;
         Boolean used;
@@ -66,7 +66,10 @@ public class InstanceView extends Catalog {
                 String uri = rs.getString("URI").replaceAll("(.*)#.*", "$1");
 
                 Class<? extends AbstractInstanceUnit> unitClass = getUnitClass(uri);
-                AbstractInstanceUnit unit = Entity.newInstance(unitClass, getOwner().toRef(), id);
+                AbstractInstanceUnit unit = AbstractInstanceUnit.newInstance(
+                        unitClass, getOwner().toRef(), id,
+                        new AccessPoint.AccessPointSettings(rs.getString("TITLE"), rs.getString("ADDRESS"), rs.getBoolean("USE"))
+                );
                 if (unit.getUsed()) {
                     ics.insert(unit);
                 }
@@ -2,6 +2,8 @@ package plugin;
 
 import codex.command.EditorCommand;
 import codex.component.button.DialogButton;
+import codex.component.messagebox.MessageBox;
+import codex.component.messagebox.MessageType;
 import codex.component.dialog.Dialog;
 import codex.editor.IEditor;
 import codex.explorer.tree.NodeTreeModel;
@@ -28,10 +30,12 @@ import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.MatteBorder;
 import java.awt.*;
+import java.sql.SQLException;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 public class SAPConfig extends CommandPlugin<Environment> {
@@ -148,14 +152,32 @@ public class SAPConfig extends CommandPlugin<Environment> {
     }
 
     private void commit() {
-        getContext().forEach(environment -> {
-            InstanceView instanceView = Entity.newInstance(InstanceView.class, environment.toRef(), environment.getInstanceId().toString());
-            NodeTreeModel treeModel = new NodeTreeModel(instanceView.getChildAt(0));
-            StreamSupport.stream(treeModel.spliterator(), false)
-                    .map(iNode -> (AccessPoint) iNode)
-                    .filter(accessPoint -> accessPoint.model.hasChanges())
-                    .forEach(AccessPoint::saveSettings);
-        });
+        try (AbstractInstanceUnit.SaveSession session = new AbstractInstanceUnit.SaveSession()) {
+            getContext().forEach(environment -> commit(session, environment));
+        }
+    }
+
+    private void commit(AbstractInstanceUnit.SaveSession session, Environment environment) {
+        InstanceView instanceView = Entity.newInstance(InstanceView.class, environment.toRef(), environment.getInstanceId().toString());
+        NodeTreeModel treeModel = new NodeTreeModel(instanceView.getChildAt(0));
+        List<AbstractInstanceUnit> changed = StreamSupport.stream(treeModel.spliterator(), false)
+                .map(iNode -> (AbstractInstanceUnit) iNode)
+                .filter(unit -> unit.model.hasChanges())
+                .collect(Collectors.toList());
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            List<AbstractInstanceUnit> conflicts = AbstractInstanceUnit.saveSettings(session, environment, changed);
+            if (!conflicts.isEmpty()) {
+                MessageBox.show(MessageType.WARNING, MessageFormat.format(
+                        Language.get(SAPConfig.class, "commit@conflict"),
+                        conflicts.stream().map(AccessPoint::toString).collect(Collectors.joining("\n"))
+                ));
+            }
+        } catch (SQLException e) {
+            MessageBox.show(MessageType.ERROR, e.getMessage());
+        }
     }
 
     abstract class SetHost extends EditorCommand<AnyType, Object> {